@@ -2,8 +2,8 @@ package br.com.microservices.orchestrated.inventoryservice.core.consumer;
 
 
 
+import br.com.microservices.orchestrated.inventoryservice.core.dto.Event;
 import br.com.microservices.orchestrated.inventoryservice.core.service.InventoryService;
-import br.com.microservices.orchestrated.inventoryservice.core.utils.JsonUtil;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,15 +23,13 @@ public class InventoryConsumer {
     private String inventoryFail;
 
     private final InventoryService inventoryService;
-    private final JsonUtil jsonUtil;
-
     @KafkaListener(
         groupId = "inventory-group",
         topics = "inventory-success"
     )
-    public void consumeInventorySuccessEvent(String payload){
-        log.info("Receiving inventory success event {} from {} topic", payload, inventorySuccess);
-        var event = jsonUtil.toEvent(payload);
+    public void consumeInventorySuccessEvent(Event event){
+        log.info("Receiving inventory success event {} from {} topic", event, inventorySuccess);
+        event.discardReceivedHistory();
         inventoryService.updateInventory(event);
         log.info("Event inventory success {}", event);
     }
@@ -40,9 +38,9 @@ public class InventoryConsumer {
             groupId = "inventory-group",
             topics = "inventory-fail"
     )
-    public void consumeInventoryFailEvent(String payload){
-        log.info("Receiving rollback event {} from {} topic", payload, inventoryFail);
-        var event = jsonUtil.toEvent(payload);
+    public void consumeInventoryFailEvent(Event event){
+        log.info("Receiving rollback event {} from {} topic", event, inventoryFail);
+        event.discardReceivedHistory();
         inventoryService.rollbackInventory(event);
         log.info("Event inventory fail {}", event);
     }
@@ -18,4 +18,5 @@ public class History {
     private ESagaStatus status;
     private String message;
     private LocalDateTime createdAt;
+    private int sequence; //Posição da entrada na linha do tempo da saga
 }
@@ -11,7 +11,7 @@ import br.com.microservices.orchestrated.inventoryservice.core.model.OrderInvent
 import br.com.microservices.orchestrated.inventoryservice.core.producer.KafkaProducer;
 import br.com.microservices.orchestrated.inventoryservice.core.repository.InventoryRepository;
 import br.com.microservices.orchestrated.inventoryservice.core.repository.OrderInventoryRepository;
-import br.com.microservices.orchestrated.inventoryservice.core.utils.JsonUtil;
+import br.com.microservices.orchestrated.sagacontracts.SagaClaimCheckClient;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,8 +24,8 @@ import java.time.LocalDateTime;
 public class InventoryService {
     private static final String CURRENT_SOURCE = "INVENTORY_SERVICE";
 
-    private final JsonUtil jsonUtil;
     private final KafkaProducer producer;
+    private final SagaClaimCheckClient<OrderProducts> claimCheckClient;
     private final InventoryRepository inventoryRepository;
     private final OrderInventoryRepository orderInventoryRepository;
 
@@ -37,6 +37,8 @@ public class InventoryService {
     public void updateInventory(Event event){
 
         try{
+            /** Busca os produtos no order-service quando o pedido veio por claim-check **/
+            event.resolveClaimedProducts(claimCheckClient);
             /** Valida se há uma transação existente - idempotencia**/
             checkCurrentValidation(event);
             /** Cria OrderInventory utilizando o evento **/
@@ -48,7 +50,7 @@ public class InventoryService {
             log.error("Error trying to update inventory: ", e);
             handleFailCurrentNotExecuted(event, e.getMessage());
         }
-        producer.sendEvent(jsonUtil.toJson(event));
+        producer.sendEvent(event);
     }
 
     /**
@@ -189,7 +191,7 @@ public class InventoryService {
         } catch (Exception e) {
             addHistory(event, "Rollback not executed for inventory".concat(e.getMessage()));
         }
-        producer.sendEvent(jsonUtil.toJson(event));
+        producer.sendEvent(event);
     }
 
     /**
@@ -0,0 +1,132 @@
+import json
+import os
+import sys
+import threading
+import time
+import urllib.error
+import urllib.request
+
+# Carga de comparação entre threads de plataforma e threads virtuais (VIRTUAL_THREADS_ENABLED).
+#
+# Uso:
+#   python load_test.py                 -> carga contra os serviços já em execução
+#   python load_test.py compare         -> sobe o docker-compose com VIRTUAL_THREADS_ENABLED=false e =true,
+#                                          roda a mesma carga nos dois e imprime a comparação
+#
+# Variáveis: LOAD_URL (padrão http://localhost:3000), LOAD_CLIENTS (200), LOAD_SECONDS (60), LOAD_WARMUP_SECONDS (15)
+# Os clientes enviam pedidos em laço fechado (cada um espera a resposta antes do próximo), então a vazão
+# medida é limitada pela latência do serviço; com poucos clientes os dois modos tendem a empatar.
+
+BASE_URL = os.environ.get("LOAD_URL", "http://localhost:3000")
+CLIENTS = int(os.environ.get("LOAD_CLIENTS", "200"))
+SECONDS = int(os.environ.get("LOAD_SECONDS", "60"))
+WARMUP_SECONDS = int(os.environ.get("LOAD_WARMUP_SECONDS", "15"))
+
+ORDER = json.dumps({
+    "products": [
+        {"product": {"code": "COMIC_BOOKS", "unitValue": 15.50}, "quantity": 3},
+        {"product": {"code": "BOOKS", "unitValue": 9.90}, "quantity": 2}
+    ]
+}).encode("utf-8")
+
+
+def create_order():
+    request = urllib.request.Request("{}/api/order".format(BASE_URL), data=ORDER, method="POST",
+                                     headers={"Content-Type": "application/json"})
+    with urllib.request.urlopen(request, timeout=30) as response:
+        response.read()
+
+
+def client(deadline, latencies, errors):
+    while time.time() < deadline:
+        start = time.perf_counter()
+        try:
+            create_order()
+            latencies.append(time.perf_counter() - start)
+        except (urllib.error.URLError, OSError):
+            errors.append(1)
+
+
+def run_load(seconds):
+    latencies = []
+    errors = []
+    deadline = time.time() + seconds
+    clients = [threading.Thread(target=client, args=(deadline, latencies, errors)) for _ in range(CLIENTS)]
+    for thread in clients:
+        thread.start()
+    for thread in clients:
+        thread.join()
+    return summarize(latencies, len(errors), seconds)
+
+
+def percentile(values, fraction):
+    if not values:
+        return 0.0
+    return values[min(len(values) - 1, int(len(values) * fraction))] * 1000
+
+
+def summarize(latencies, errors, seconds):
+    latencies.sort()
+    return {
+        "requests": len(latencies),
+        "errors": errors,
+        "throughput": len(latencies) / seconds,
+        "p50": percentile(latencies, 0.50),
+        "p95": percentile(latencies, 0.95),
+        "p99": percentile(latencies, 0.99),
+        "max": latencies[-1] * 1000 if latencies else 0.0
+    }
+
+
+def benchmark(label):
+    print("[{}] warmup {}s with {} clients".format(label, WARMUP_SECONDS, CLIENTS))
+    run_load(WARMUP_SECONDS)
+    print("[{}] measuring {}s".format(label, SECONDS))
+    result = run_load(SECONDS)
+    print_result(label, result)
+    return result
+
+
+def print_result(label, result):
+    print("{:<10} {:>9} {:>7} {:>10.1f} req/s  p50 {:>8.1f} ms  p95 {:>8.1f} ms  p99 {:>8.1f} ms  max {:>8.1f} ms".format(
+        label, result["requests"], result["errors"], result["throughput"],
+        result["p50"], result["p95"], result["p99"], result["max"]))
+
+
+def wait_until_healthy(timeout=300):
+    deadline = time.time() + timeout
+    while time.time() < deadline:
+        try:
+            with urllib.request.urlopen("{}/actuator/health".format(BASE_URL), timeout=5) as response:
+                if b"UP" in response.read():
+                    return
+        except (urllib.error.URLError, OSError):
+            pass
+        time.sleep(2)
+    raise RuntimeError("order-service did not become healthy in {}s".format(timeout))
+
+
+def start_services(virtual_threads):
+    print("Starting containers with VIRTUAL_THREADS_ENABLED={}".format(virtual_threads))
+    os.system("docker-compose down")
+    os.system("VIRTUAL_THREADS_ENABLED={} docker-compose up --build -d".format(virtual_threads))
+    wait_until_healthy()
+
+
+def compare():
+    results = {}
+    for label, virtual_threads in (("platform", "false"), ("virtual", "true")):
+        start_services(virtual_threads)
+        results[label] = benchmark(label)
+    print()
+    print("{:<10} {:>9} {:>7} {:>16}  {:>14}  {:>14}  {:>14}  {:>14}".format(
+        "mode", "requests", "errors", "throughput", "p50", "p95", "p99", "max"))
+    for label, result in results.items():
+        print_result(label, result)
+
+
+if __name__ == "__main__":
+    if len(sys.argv) > 1 and sys.argv[1] == "compare":
+        compare()
+    else:
+        benchmark("current")
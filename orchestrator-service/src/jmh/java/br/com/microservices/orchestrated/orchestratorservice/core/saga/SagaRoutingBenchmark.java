@@ -0,0 +1,61 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaHandler.*;
+
+/**
+ * Compara a busca antiga (stream sobre o SAGA_HANDLER) com a tabela de transições compilada.
+ * Executar com: gradle jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SagaRoutingBenchmark {
+
+    private final SagaTransitionTable transitionTable = SagaTransitionTable.compile(SAGA_HANDLER);
+
+    private EEventSource[] sources;
+    private ESagaStatus[] statuses;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        sources = new EEventSource[SAGA_HANDLER.length];
+        statuses = new ESagaStatus[SAGA_HANDLER.length];
+        for (int i = 0; i < SAGA_HANDLER.length; i++) {
+            sources[i] = (EEventSource) SAGA_HANDLER[i][EVENT_SOURCE_INDEX];
+            statuses[i] = (ESagaStatus) SAGA_HANDLER[i][SAGA_STATUS_INDEX];
+        }
+    }
+
+    @Benchmark
+    public ETopics streamLookup() {
+        var i = next();
+        var source = sources[i];
+        var status = statuses[i];
+        return (ETopics) Arrays.stream(SAGA_HANDLER)
+                .filter(row -> source.equals(row[EVENT_SOURCE_INDEX]) && status.equals(row[SAGA_STATUS_INDEX]))
+                .map(row -> row[TOPIC_INDEX])
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public ETopics compiledLookup() {
+        var i = next();
+        return transitionTable.find(sources[i], statuses[i]);
+    }
+
+    private int next() {
+        var i = cursor;
+        cursor = i + 1 == sources.length ? 0 : i + 1;
+        return i;
+    }
+}
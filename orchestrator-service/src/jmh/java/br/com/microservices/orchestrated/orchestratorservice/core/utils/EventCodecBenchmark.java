@@ -0,0 +1,98 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.utils;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.History;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Order;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.OrderProducts;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Product;
+import br.com.microservices.orchestrated.sagacontracts.SagaBufferPool;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventCodec;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.*;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.SUCCESS;
+import static br.com.microservices.orchestrated.sagacontracts.SagaWire.BINARY_CONTENT_TYPE;
+import static br.com.microservices.orchestrated.sagacontracts.SagaWire.JSON_CONTENT_TYPE;
+
+/**
+ * Compara o custo de codificar e decodificar o Event em JSON e no formato binário,
+ * variando o tamanho do histórico, que é o que mais cresce ao longo da saga.
+ * jsonEncode é o caminho sem pool (writeValueAsBytes); os demais passam pelo SagaEventFormat com buffers reaproveitados.
+ * O tamanho em bytes de cada formato é impresso no setup.
+ * Executar com: gradle jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventCodecBenchmark {
+
+    /** 0 e 1 são o que cada passo carrega com o histórico incremental; 4 e 8 o histórico completo de antes **/
+    @Param({"0", "1", "4", "8"})
+    private int historySize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SagaEventFormat<Event> format = new SagaEventFormat<>(objectMapper, Event.class,
+            new SagaEventCodec<>(EventWireMapper.INSTANCE), new SagaBufferPool(1), JSON_CONTENT_TYPE);
+
+    private Event event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws Exception {
+        event = buildEvent(historySize);
+        json = objectMapper.writeValueAsBytes(event);
+        binary = format.encode(event, BINARY_CONTENT_TYPE);
+        System.out.printf("%nhistorySize=%d json=%d bytes binary=%d bytes%n", historySize, json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] jsonEncodePooled() {
+        return format.encode(event, JSON_CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public Event jsonDecode() {
+        return format.decode(json, JSON_CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return format.encode(event, BINARY_CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public Event binaryDecode() {
+        return format.decode(binary, BINARY_CONTENT_TYPE);
+    }
+
+    private static Event buildEvent(int historySize) {
+        var now = LocalDateTime.now();
+        var transactionId = UUID.randomUUID().toString();
+        var products = List.of(
+                new OrderProducts(new Product("COMIC_BOOKS", 15.50), 3),
+                new OrderProducts(new Product("BOOKS", 9.90), 2)
+        );
+        var order = new Order(UUID.randomUUID().toString(), products, now, transactionId, 66.30, 5);
+        var sources = List.of(ORCHESTRATOR, PRODUCT_VALIDATION_SERVICE, PAYMENT_SERVICE, INVENTORY_SERVICE);
+        var history = new ArrayList<History>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(new History(sources.get(i % sources.size()), SUCCESS, "Step executed successfully", now, i + 1));
+        }
+        return new Event(UUID.randomUUID().toString(), transactionId, null, order.getId(), order,
+                INVENTORY_SERVICE, SUCCESS, history, now, historySize, null);
+    }
+}
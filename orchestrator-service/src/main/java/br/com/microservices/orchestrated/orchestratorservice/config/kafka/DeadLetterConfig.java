@@ -0,0 +1,63 @@
+package br.com.microservices.orchestrated.orchestratorservice.config.kafka;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import br.com.microservices.orchestrated.sagacontracts.SagaDeadLetters;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+/**
+ * Configuração do tratamento dos registros que não podem ser processados (poison records).
+ * O orquestrador recebe o corpo em byte[] e só o decodifica no listener; quando a leitura falha, o error handler
+ * abaixo envia o registro para o tópico <original>.DLT sem retentativas e o offset avança,
+ * então uma mensagem ruim não trava a partição nem a vazão da saga. O tratamento fica no SagaDeadLetters (saga-contracts).
+ */
+@Configuration
+public class DeadLetterConfig {
+
+    /**
+     * Retentativas em memória para erros de processamento antes de enviar o registro ao DLT.
+     * Motivo: Falhas transitórias (ex: banco indisponível por instantes) se resolvem sozinhas, mas cada retentativa
+     * segura a partição, então o número é baixo. Corpos que não podem ser lidos não são retentados.
+     */
+    @Value("${saga.dead-letter.retries:2}")
+    private Long retries;
+
+    /** Intervalo entre as retentativas **/
+    @Value("${saga.dead-letter.retry-backoff-ms:100}")
+    private Long retryBackoffMs;
+
+    /**
+     * Publica o registro em <original>.DLT, com o corpo exatamente como chegou, e conta na métrica saga.dead.letter.
+     * Também é usado pelo SagaOrchestratorBatchConsumer para os registros do lote que falharam.
+     */
+    @Bean
+    public ConsumerRecordRecoverer deadLetterRecoverer(KafkaTemplate<String, byte[]> kafkaTemplate, MeterRegistry meterRegistry) {
+        return SagaDeadLetters.recoverer(kafkaTemplate, meterRegistry);
+    }
+
+    /**
+     * Error handler usado pelo container padrão dos listeners (o Spring Boot aplica o bean automaticamente).
+     * Corpos ilegíveis vão direto para o DLT; os demais erros são retentados e depois enviados ao DLT.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(ConsumerRecordRecoverer deadLetterRecoverer) {
+        return SagaDeadLetters.errorHandler(deadLetterRecoverer, retryBackoffMs, retries);
+    }
+
+    /** Configuração para iniciar os tópicos de dead letter dos tópicos consumidos por este serviço **/
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics() {
+        return new KafkaAdmin.NewTopics(
+                SagaDeadLetters.topic(ETopics.START_SAGA.getTopic()),
+                SagaDeadLetters.topic(ETopics.BASE_ORCHESTRATOR.getTopic()),
+                SagaDeadLetters.topic(ETopics.FINISH_SUCCESS.getTopic()),
+                SagaDeadLetters.topic(ETopics.FINISH_FAIL.getTopic())
+        );
+    }
+}
@@ -1,18 +1,33 @@
 package br.com.microservices.orchestrated.orchestratorservice.config.kafka;
 
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
 import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import br.com.microservices.orchestrated.orchestratorservice.core.utils.EventWireMapper;
+import br.com.microservices.orchestrated.sagacontracts.SagaBufferPool;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventCodec;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
+import br.com.microservices.orchestrated.sagacontracts.SagaSender;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -52,10 +67,87 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset}")
     private String autoOffsetReset;
 
-    /** Valores Fixos para partição e replicas para criação de tópicos **/
-    private static final Integer PARTITION_COUNT = 1;
+    /**
+     * Quantidade máxima de registros entregues por poll ao listener em lote.
+     * Motivo: É o tamanho máximo do lote processado pelo SagaOrchestratorBatchConsumer, usado para medir
+     * como a vazão do orquestrador escala com o tamanho do lote.
+     */
+    @Value("${saga.consumer.batch.max-poll-records:500}")
+    private Integer batchMaxPollRecords;
+
+    /**
+     * Quantidade de threads consumidoras por listener, a mesma usada pela fábrica padrão do Spring Boot.
+     * Motivo: Cada thread recebe um subconjunto das partições, então só há ganho com partições suficientes.
+     */
+    @Value("${spring.kafka.listener.concurrency:1}")
+    private Integer listenerConcurrency;
+
+    /**
+     * Intervalo máximo entre as novas tentativas de um lote cujos envios falharam.
+     * Motivo: O lote é entregue de novo até ser publicado, sem commit dos offsets, em vez de ser descartado
+     * depois de um número fixo de tentativas; enquanto isso o lag cresce, mas nenhum passo da saga se perde.
+     */
+    @Value("${saga.consumer.batch.retry-max-interval-ms:10000}")
+    private Long batchRetryMaxIntervalMs;
+
+    /**
+     * Executa os consumidores em threads virtuais, como o Spring Boot faz com a fábrica padrão.
+     * Motivo: A fábrica em lote é criada aqui e não recebe essa configuração automaticamente.
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Quantidade padrão de partições dos tópicos criados por esta aplicação.
+     * Motivo: Cada partição é consumida por uma única thread do grupo, então o número de partições limita quantas
+     * threads (spring.kafka.listener.concurrency) e instâncias conseguem consumir em paralelo.
+     * Uso Futuro: Cada tópico pode sobrescrever o padrão com spring.kafka.partitions.<topico>. Aumentar as partições de um
+     * tópico existente muda a partição das chaves, então é melhor fazer isso com os tópicos vazios.
+     */
+    @Value("${spring.kafka.partitions.default:1}")
+    private Integer defaultPartitionCount;
+
+    /**
+     * Formato usado para publicar os eventos: application/json ou application/vnd.saga.event.v1+binary.
+     * Motivo: A leitura segue o header content-type de cada mensagem, então os serviços podem trocar de formato um de cada vez.
+     */
+    @Value("${saga.wire.content-type:application/json}")
+    private String wireContentType;
+
+    /**
+     * Quantidade de buffers de escrita mantidos para reuso na codificação dos eventos.
+     * Motivo: Cada evento publicado é codificado em um buffer emprestado do pool, em vez de alocar um novo por mensagem.
+     */
+    @Value("${saga.wire.buffer-pool-size:64}")
+    private Integer bufferPoolSize;
+
+    /**
+     * Quantidade máxima de envios aguardando confirmação do broker antes de bloquear quem publica.
+     * Motivo: Aplica backpressure quando o broker fica lento, em vez de acumular registros em memória sem limite.
+     */
+    @Value("${spring.kafka.producer.max-in-flight:1000}")
+    private Integer maxInFlight;
+
+    /** Valor fixo de replicas para criação de tópicos **/
     private static final Integer REPLICA_COUNT = 1;
 
+    /** Usado para ler a quantidade de partições configurada para cada tópico **/
+    private final Environment environment;
+
+    // ------------------- FORMATO DAS MENSAGENS ------------------- //
+
+    /**
+     * Codificação do Event no corpo das mensagens (saga-contracts).
+     * Motivo: O orquestrador repassa o corpo recebido sem decodificar sempre que os headers bastam, por isso o
+     * Kafka trabalha com byte[] aqui; quando precisa ler ou criar um evento, usa este formato, que escreve direto
+     * em um buffer reaproveitado, em JSON ou binário, sem passar por uma String.
+     */
+    @Bean
+    public SagaEventFormat<Event> sagaEventFormat(ObjectMapper objectMapper) {
+        return new SagaEventFormat<>(objectMapper, Event.class, new SagaEventCodec<>(EventWireMapper.INSTANCE),
+                new SagaBufferPool(bufferPoolSize), wireContentType);
+    }
+
     // ------------------- CONFIGURAÇÕES DO CONSUMER ------------------- //
 
     /**
@@ -64,7 +156,7 @@ public class KafkaConfig {
      * Motivo: Abstrai a criação manual de consumidores, delegando essa responsabilidade ao framework.
      */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, byte[]> consumerFactory() {
         return new DefaultKafkaConsumerFactory<>(consumerProps());
     }
 
@@ -77,11 +169,37 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer); // Endereço do servidor.
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId); // Define a qual "time" de consumidores esta instância pertence.
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class); // (Desserializador da Chave) Kafka armazena tudo em bytes. Isso ensina o consumidor a "traduzir" a chave da mensagem de bytes de volta para uma String Java.
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class); // (Desserializador do Valor) O mesmo que o anterior, mas para o corpo da mensagem.
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class); // (Desserializador do Valor) O corpo chega como bytes e é convertido pelo SagaEventFormat conforme o header content-type (JSON ou binário).
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset); // Define a estratégia de leitura inicial do tópico.
         return props;
     }
 
+    /**
+     * Fábrica de containers para listeners em lote (saga.consumer.batch.enabled=true).
+     * Motivo: Cada invocação do listener recebe todos os registros de um poll, e com AckMode.BATCH
+     * os offsets são commitados uma única vez, depois que o lote inteiro foi processado e publicado.
+     * Uma exceção do listener (envio não confirmado) repete o lote inteiro com backoff exponencial, sem limite de tentativas.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> batchKafkaListenerContainerFactory() {
+        var props = consumerProps();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords); // Limita o tamanho de cada lote.
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, byte[]>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.setConcurrency(listenerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        var backOff = new ExponentialBackOff(100, 2);
+        backOff.setMaxInterval(batchRetryMaxIntervalMs);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        if (virtualThreads) {
+            var executor = new SimpleAsyncTaskExecutor("batch-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+        return factory;
+    }
+
     // ------------------- CONFIGURAÇÕES DO PRODUCER ------------------- //
 
     /**
@@ -89,7 +207,7 @@ public class KafkaConfig {
      * Motivo: Padroniza a criação de produtores na aplicação.
      */
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
+    public ProducerFactory<String, byte[]> producerFactory() {
         return new DefaultKafkaProducerFactory<>(producerProps());
     }
 
@@ -101,7 +219,8 @@ public class KafkaConfig {
         var props = new HashMap<String, Object>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer); // Endereço do servidor.
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // (Serializador da Chave) Ensina o produtor a "traduzir" a chave (String Java) para o formato de bytes que o Kafka entende.
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // (Serializador do Valor) O mesmo, mas para o corpo da mensagem.
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class); // (Serializador do Valor) O corpo já é codificado em bytes pelo SagaEventFormat (ou repassado como chegou), no formato informado no header content-type.
+        props.putAll(SagaSender.ORDERED_DELIVERY); // Idempotência, acks=all e até 5 requisições por conexão: o produtor reenvia sem duplicar nem inverter a ordem por partição.
         return props;
     }
 
@@ -111,17 +230,32 @@ public class KafkaConfig {
      * Em vez de lidar com a complexidade do Producer nativo, você simplesmente chama `kafkaTemplate.send(...)`.
      */
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+    public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    /**
+     * Envio assíncrono usado pelos produtores da aplicação (saga-contracts).
+     * Motivo: Limita os envios sem confirmação a spring.kafka.producer.max-in-flight, bloqueando quem publica
+     * quando o broker fica lento, e devolve um future com o resultado final de cada envio.
+     */
+    @Bean
+    public SagaSender<byte[]> sagaSender(KafkaTemplate<String, byte[]> kafkaTemplate) {
+        return new SagaSender<>(kafkaTemplate, maxInFlight);
+    }
+
     private NewTopic buildTopic(String name){
         return TopicBuilder
                 .name(name)
-                .partitions(PARTITION_COUNT)
+                .partitions(partitionsOf(name))
                 .replicas(REPLICA_COUNT)
                 .build();
     }
+
+    /** Partições do tópico: spring.kafka.partitions.<topico> ou o padrão spring.kafka.partitions.default **/
+    private Integer partitionsOf(String name){
+        return environment.getProperty("spring.kafka.partitions.".concat(name), Integer.class, defaultPartitionCount);
+    }
     /** Configuração para iniciar o topico start-saga automaticamente durante a inicialização da aplicação **/
     @Bean
     public NewTopic startSagaTopic(){
@@ -188,4 +322,10 @@ public class KafkaConfig {
         return buildTopic(ETopics.NOTIFY_ENDING.getTopic());
     }
 
+    /** Configuração para iniciar o topico saga-history automaticamente durante a inicialização da aplicação **/
+    @Bean
+    public NewTopic sagaHistoryTopic(){
+        return buildTopic(ETopics.SAGA_HISTORY.getTopic());
+    }
+
 }
\ No newline at end of file
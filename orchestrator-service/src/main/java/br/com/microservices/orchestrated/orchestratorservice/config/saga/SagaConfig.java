@@ -0,0 +1,32 @@
+package br.com.microservices.orchestrated.orchestratorservice.config.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaDefinition;
+import br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaStep;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.*;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.*;
+
+/** Habilita a leitura das definições de saga do application.yml e declara os tipos de saga embutidos **/
+@Configuration
+@EnableConfigurationProperties(SagaProperties.class)
+public class SagaConfig {
+
+    /**
+     * Fluxo de pedido com a validação de produtos e o pagamento executados em paralelo,
+     * já que um não depende do outro. O inventário só é atualizado depois do join dos dois ramos.
+     */
+    @Bean
+    public SagaDefinition parallelOrderSaga(){
+        return SagaDefinition
+                .builder()
+                .sagaType("ORDER_PARALLEL")
+                .step(SagaStep.parallel(
+                        SagaStep.of(PRODUCT_VALIDATION_SERVICE, PRODUCT_VALIDATION_SUCCESS, PRODUCT_VALIDATION_FAIL),
+                        SagaStep.of(PAYMENT_SERVICE, PAYMENT_SUCCESS, PAYMENT_FAIL)))
+                .step(SagaStep.of(INVENTORY_SERVICE, INVENTORY_SUCCESS, INVENTORY_FAIL))
+                .build();
+    }
+}
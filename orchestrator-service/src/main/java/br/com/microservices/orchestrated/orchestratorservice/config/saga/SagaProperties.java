@@ -0,0 +1,20 @@
+package br.com.microservices.orchestrated.orchestratorservice.config.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaStep;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Definições de saga declaradas no application.yml, agrupadas por tipo de saga.
+ */
+@Data
+@ConfigurationProperties(prefix = "saga")
+public class SagaProperties {
+
+    /** Passos de cada tipo de saga, na ordem de execução **/
+    private Map<String, List<SagaStep>> definitions = new HashMap<>();
+}
@@ -0,0 +1,96 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.consumer;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaRouting;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import br.com.microservices.orchestrated.orchestratorservice.core.producer.SagaOrchestratorProducer;
+import br.com.microservices.orchestrated.orchestratorservice.core.service.OrchestratorService;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
+import br.com.microservices.orchestrated.sagacontracts.SagaWire;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener em lote dos quatro tópicos do orquestrador (saga.consumer.batch.enabled=true).
+ * Os registros de um poll são roteados em ordem pelo OrchestratorService, as publicações ficam
+ * acumuladas no produtor e são enviadas juntas ao fim do lote. O listener só retorna, e o container só commita
+ * os offsets do lote inteiro, depois que todos os envios do lote foram confirmados pelo broker, reenvios incluídos.
+ * Se algum envio falhar, o listener lança a exceção e o lote é entregue de novo sem commit; os registros
+ * que já tinham avançado a saga são então descartados como respostas atrasadas.
+ * Um registro que falha no processamento vai para o dead letter e não interrompe o restante do lote.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "saga.consumer.batch.enabled", havingValue = "true")
+public class SagaOrchestratorBatchConsumer {
+
+    private final SagaEventFormat<Event> eventFormat;
+    private final OrchestratorService orchestratorService;
+    private final SagaOrchestratorProducer producer;
+    private final ConsumerRecordRecoverer deadLetterRecoverer;
+
+    private final LongAdder processedRecords = new LongAdder();
+    private final LongAdder processedBatches = new LongAdder();
+
+    /** Espera máxima pela confirmação dos envios de um lote; deve ficar abaixo do max.poll.interval.ms **/
+    @Value("${saga.consumer.batch.send-timeout-ms:60000}")
+    private long sendTimeoutMs;
+
+    @KafkaListener(
+            groupId = "orchestrator-group",
+            topics = {"start-saga", "orchestrator", "finish-success", "finish-fail"},
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumeBatch(List<ConsumerRecord<String, byte[]>> records){
+        var start = System.nanoTime();
+        var failures = 0;
+        producer.beginBatch();
+        for (var record : records){
+            try {
+                route(record);
+            } catch (Exception e) {
+                failures++;
+                log.error("Error processing record from topic {} at offset {} with key {}", record.topic(), record.offset(), record.key(), e);
+                deadLetterRecoverer.accept(record, e);
+            }
+        }
+        producer.awaitBatch(sendTimeoutMs);
+        logThroughput(records.size(), failures, System.nanoTime() - start);
+    }
+
+    /** Encaminha o registro para o mesmo método do OrchestratorService usado pelos listeners individuais **/
+    private void route(ConsumerRecord<String, byte[]> record){
+        var topic = record.topic();
+        var contentType = SagaWire.contentType(record.headers());
+        if (topic.equals(ETopics.BASE_ORCHESTRATOR.getTopic())){
+            orchestratorService.continueSaga(record.value(), contentType, SagaRouting.read(record.headers()));
+        } else if (topic.equals(ETopics.START_SAGA.getTopic())){
+            orchestratorService.startSaga(eventFormat.decode(record.value(), contentType));
+        } else if (topic.equals(ETopics.FINISH_SUCCESS.getTopic())){
+            orchestratorService.finishSagaSuccess(eventFormat.decode(record.value(), contentType));
+        } else if (topic.equals(ETopics.FINISH_FAIL.getTopic())){
+            orchestratorService.finishSagaFail(eventFormat.decode(record.value(), contentType));
+        } else {
+            log.warn("Ignoring record from unexpected topic {}", topic);
+        }
+    }
+
+    private void logThroughput(int size, int failures, long elapsedNanos){
+        processedRecords.add(size);
+        processedBatches.increment();
+        var elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(elapsedNanos), 1);
+        log.info("Processed batch of {} records ({} failures) in {} ms | {} records/s | total {} records in {} batches",
+                size, failures, elapsedMillis, size * 1000L / elapsedMillis, processedRecords.sum(), processedBatches.sum());
+    }
+}
@@ -1,21 +1,29 @@
 package br.com.microservices.orchestrated.orchestratorservice.core.consumer;
 
 
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaRouting;
+import br.com.microservices.orchestrated.orchestratorservice.core.producer.SagaOrchestratorProducer;
 import br.com.microservices.orchestrated.orchestratorservice.core.service.OrchestratorService;
 
-import br.com.microservices.orchestrated.orchestratorservice.core.utils.JsonUtil;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
+import br.com.microservices.orchestrated.sagacontracts.SagaWire;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+/** Listeners de um registro por invocação, desativados quando o modo em lote está habilitado **/
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "saga.consumer.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class SagaOrchestratorConsumer {
 
     @Value("${spring.kafka.topic.start-saga}")
@@ -27,19 +35,28 @@ public class SagaOrchestratorConsumer {
     @Value("${spring.kafka.topic.finish-fail}")
     private String finishFailTopic;
 
-    private final JsonUtil jsonUtil;
+    private final SagaEventFormat<Event> eventFormat;
 
     private final OrchestratorService orchestratorService;
 
+    private final SagaOrchestratorProducer producer;
+
+    /**
+     * Espera máxima pela confirmação dos envios feitos ao processar um registro.
+     * Motivo: O listener só termina (e o offset só é confirmado) com os eventos seguintes da saga entregues;
+     * uma falha de envio é retentada pelo error handler do container ou vai para o DLT.
+     */
+    @Value("${saga.consumer.send-timeout-ms:60000}")
+    private long sendTimeoutMs;
 
     @KafkaListener(
             groupId = "orchestrator-group",
             topics = "start-saga"
     )
-    public void consumeStartSagaEvent(String payload){
-        log.info("Receiving start saga event {} from {} topic", payload, startSagaTopic);
-        var event = jsonUtil.toEvent(payload);
-        orchestratorService.startSaga(event);
+    public void consumeStartSagaEvent(ConsumerRecord<String, byte[]> record){
+        var event = eventFormat.decode(record.value(), SagaWire.contentType(record.headers()));
+        log.info("Receiving start saga event {} from {} topic", event, startSagaTopic);
+        awaitSends(() -> orchestratorService.startSaga(event));
         log.info("Event start saga {}", event);
     }
 
@@ -47,21 +64,20 @@ public class SagaOrchestratorConsumer {
             groupId = "orchestrator-group",
             topics = "orchestrator"
     )
-    public void consumeOrchestratorEvent(String payload){
-        log.info("Receiving orchestrator event {} from {} topic", payload, orchestratorTopic);
-        var event = jsonUtil.toEvent(payload);
-        orchestratorService.continueSaga(event);
-        log.info("Event orchestrator {}", event);
+    public void consumeOrchestratorEvent(ConsumerRecord<String, byte[]> record){
+        log.info("Receiving orchestrator event with key {} ({} bytes) from {} topic", record.key(), record.value().length, orchestratorTopic);
+        awaitSends(() -> orchestratorService.continueSaga(record.value(), SagaWire.contentType(record.headers()),
+                SagaRouting.read(record.headers())));
     }
 
     @KafkaListener (
             groupId = "orchestrator-group",
             topics = "finish-success"
     )
-    public void consumeFinishSuccessEvent(String payload){
-        log.info("Receiving finish success event {} from {} topic", payload, finishSuccessTopic);
-        var event = jsonUtil.toEvent(payload);
-        orchestratorService.finishSagaSuccess(event);
+    public void consumeFinishSuccessEvent(ConsumerRecord<String, byte[]> record){
+        var event = eventFormat.decode(record.value(), SagaWire.contentType(record.headers()));
+        log.info("Receiving finish success event {} from {} topic", event, finishSuccessTopic);
+        awaitSends(() -> orchestratorService.finishSagaSuccess(event));
         log.info("Event finish success {}", event);
     }
 
@@ -69,10 +85,26 @@ public class SagaOrchestratorConsumer {
             groupId = "orchestrator-group",
             topics = "finish-fail"
     )
-    public void consumeFinishFailEvent(String payload){
-        log.info("Receiving finish fail event {} from {} topic", payload, finishFailTopic);
-        var event = jsonUtil.toEvent(payload);
-        orchestratorService.finishSagaFail(event);
+    public void consumeFinishFailEvent(ConsumerRecord<String, byte[]> record){
+        var event = eventFormat.decode(record.value(), SagaWire.contentType(record.headers()));
+        log.info("Receiving finish fail event {} from {} topic", event, finishFailTopic);
+        awaitSends(() -> orchestratorService.finishSagaFail(event));
         log.info("Event finish fail {}", event);
     }
+
+    /** Processa o registro e aguarda a confirmação de todos os envios feitos nele **/
+    private void awaitSends(Runnable processing){
+        producer.beginBatch();
+        try {
+            processing.run();
+        } catch (RuntimeException e) {
+            try {
+                producer.awaitBatch(sendTimeoutMs);
+            } catch (RuntimeException sendError) {
+                e.addSuppressed(sendError);
+            }
+            throw e;
+        }
+        producer.awaitBatch(sendTimeoutMs);
+    }
 }
@@ -0,0 +1,45 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.controller;
+
+import br.com.microservices.orchestrated.orchestratorservice.config.exception.ValidationException;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaInFlightSummary;
+import br.com.microservices.orchestrated.orchestratorservice.core.registry.SagaState;
+import br.com.microservices.orchestrated.orchestratorservice.core.registry.SagaStateRegistry;
+import br.com.microservices.orchestrated.orchestratorservice.core.timeout.SagaTimeoutScheduler;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/saga")
+public class SagaController {
+
+    private final SagaStateRegistry sagaStateRegistry;
+    private final SagaTimeoutScheduler sagaTimeoutScheduler;
+
+    /**
+     * Controller para consultar o resumo das sagas em andamento: total, quantidade por passo, idade da mais antiga
+     * e prazos de resposta pendentes
+     * @return
+     */
+    @GetMapping("in-flight")
+    public SagaInFlightSummary summarizeInFlight(){
+        var summary = sagaStateRegistry.summarize();
+        summary.setPendingTimeouts(sagaTimeoutScheduler.pendingTimeouts());
+        return summary;
+    }
+
+    /**
+     * Controller para consultar o passo atual de uma saga em andamento
+     * @param transactionId
+     * @return
+     */
+    @GetMapping("in-flight/{transactionId}")
+    public SagaState findInFlight(@PathVariable String transactionId){
+        return sagaStateRegistry
+                .find(transactionId)
+                .orElseThrow(() -> new ValidationException("Saga not in flight for TransactionID."));
+    }
+}
@@ -22,17 +22,21 @@ import static org.springframework.util.CollectionUtils.isEmpty;
 public class Event {
     private String id;
     private String transactionId;
+    private String sagaType; //Tipo de saga a ser executada, vazio para o fluxo padrão
     private String orderId;
     private Order payload;
     private EEventSource source; //Definir qual serviço atual esta sendo utilizado
     private ESagaStatus status;
     private List<History> eventHistory;
     private LocalDateTime createdAt;
+    private int historySequence; //Última sequência usada no histórico, para numerar as entradas sem receber as anteriores
+    private String payloadHash; //Hash dos itens quando o pedido segue por claim-check, sem a lista de produtos no payload
 
     public void addToHistory(History history) {
         if (isEmpty(eventHistory)){
             eventHistory = new ArrayList<>();
         }
+        history.setSequence(++historySequence);
         eventHistory.add(history);
     }
 }
@@ -0,0 +1,20 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SagaInFlightSummary {
+    private long totalInFlight;
+    private Map<String, Long> countsByStep;
+    private String oldestTransactionId;
+    private long oldestInFlightAgeMillis;
+    private long pendingTimeouts;
+}
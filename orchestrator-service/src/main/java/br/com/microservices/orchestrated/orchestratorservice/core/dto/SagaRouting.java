@@ -0,0 +1,47 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.dto;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus;
+import br.com.microservices.orchestrated.sagacontracts.SagaHeaders;
+import br.com.microservices.orchestrated.sagacontracts.SagaWire;
+import org.apache.kafka.common.header.Headers;
+
+import java.util.Map;
+
+/**
+ * Dados de roteamento de um evento da saga: o suficiente para decidir o próximo passo
+ * sem o payload e o histórico. Vem dos headers Kafka (SagaHeaders) ou do próprio Event.
+ */
+public record SagaRouting(String eventId,
+                          String transactionId,
+                          String orderId,
+                          String sagaType,
+                          EEventSource source,
+                          ESagaStatus status) {
+
+    public static SagaRouting of(Event event) {
+        var orderId = event.getPayload() != null ? event.getPayload().getId() : event.getOrderId();
+        return new SagaRouting(event.getId(), event.getTransactionId(), orderId,
+                event.getSagaType(), event.getSource(), event.getStatus());
+    }
+
+    /**
+     * Lê os dados de roteamento dos headers de um registro recebido
+     * @return dados de roteamento, ou null se transactionId, source ou status estiverem ausentes ou inválidos
+     */
+    public static SagaRouting read(Headers headers) {
+        return SagaHeaders.read(headers, (eventId, transactionId, orderId, sagaType, source, status) ->
+                new SagaRouting(eventId, transactionId, orderId, sagaType, EEventSource.valueOf(source), ESagaStatus.valueOf(status)));
+    }
+
+    /**
+     * Headers de roteamento para publicar o evento
+     * @param contentType formato do corpo
+     * @return nome e valor de cada header
+     */
+    public Map<String, String> headers(String contentType) {
+        var headers = SagaHeaders.of(eventId, transactionId, orderId, sagaType, source, status);
+        headers.put(SagaWire.CONTENT_TYPE, contentType);
+        return headers;
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.enums;
+
+/** Ação executada quando um passo da saga não responde dentro do prazo **/
+public enum ETimeoutAction {
+    RETRY,      // republica o evento no tópico do passo até o limite de tentativas, depois compensa
+    COMPENSATE  // trata o passo como falho e inicia o rollback imediatamente
+}
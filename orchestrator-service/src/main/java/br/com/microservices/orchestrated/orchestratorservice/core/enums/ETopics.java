@@ -1,24 +1,48 @@
 package br.com.microservices.orchestrated.orchestratorservice.core.enums;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.INVENTORY_SERVICE;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.PAYMENT_SERVICE;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.PRODUCT_VALIDATION_SERVICE;
+
+/**
+ * Tópicos da saga. Os tópicos consumidos pelos serviços participantes informam
+ * qual serviço os consome e se são tópicos de rollback.
+ */
 @Getter
-@AllArgsConstructor
 public enum ETopics {
 
     START_SAGA("start-saga"),
     BASE_ORCHESTRATOR("orchestrator"),
     FINISH_SUCCESS("finish-success"),
     FINISH_FAIL("finish-fail"),
-    PRODUCT_VALIDATION_SUCCESS("product-validation-success"),
-    PRODUCT_VALIDATION_FAIL("product-validation-fail"),
-    PAYMENT_SUCCESS("payment-success"),
-    PAYMENT_FAIL("payment-fail"),
-    INVENTORY_SUCCESS("inventory-success"),
-    INVENTORY_FAIL("inventory-fail"),
-    NOTIFY_ENDING("notify-ending");
+    PRODUCT_VALIDATION_SUCCESS("product-validation-success", PRODUCT_VALIDATION_SERVICE, false),
+    PRODUCT_VALIDATION_FAIL("product-validation-fail", PRODUCT_VALIDATION_SERVICE, true),
+    PAYMENT_SUCCESS("payment-success", PAYMENT_SERVICE, false),
+    PAYMENT_FAIL("payment-fail", PAYMENT_SERVICE, true),
+    INVENTORY_SUCCESS("inventory-success", INVENTORY_SERVICE, false),
+    INVENTORY_FAIL("inventory-fail", INVENTORY_SERVICE, true),
+    NOTIFY_ENDING("notify-ending"),
+    /** Históricos adicionados pelo orquestrador, lidos pelo order-service para montar a linha do tempo **/
+    SAGA_HISTORY("saga-history");
+
+    private final String topic;
+    /** Serviço participante que consome o tópico, ou null para tópicos do próprio orquestrador **/
+    private final EEventSource participant;
+    private final boolean rollback;
+
+    ETopics(String topic) {
+        this(topic, null, false);
+    }
 
-    private String topic;
+    ETopics(String topic, EEventSource participant, boolean rollback) {
+        this.topic = topic;
+        this.participant = participant;
+        this.rollback = rollback;
+    }
 
+    public boolean isParticipantTopic() {
+        return participant != null;
+    }
 }
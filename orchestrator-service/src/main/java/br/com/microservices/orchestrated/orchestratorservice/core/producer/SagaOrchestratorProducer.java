@@ -1,29 +1,83 @@
 package br.com.microservices.orchestrated.orchestratorservice.core.producer;
 
-import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
-import lombok.AllArgsConstructor;
+import br.com.microservices.orchestrated.sagacontracts.SagaSender;
+import br.com.microservices.orchestrated.sagacontracts.SagaWire;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.KafkaException;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 
 /** Classe criada para trabalhar com produtores**/
 @Slf4j//Anotação de logs
 @Component
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class SagaOrchestratorProducer {
-    /** Isso funciona por conta do KafkaConfig realizado**/
-    private final KafkaTemplate<String, String> kafkaTemplate;
-
-    /** Método para envio de evento **/
-    public void sendEvent(String payload, String topico){
-        try{
-            log.info("Sending event to topic {} with data {}", topico, payload);
-            kafkaTemplate.send(topico, payload);
-        } catch (Exception e) {
-            log.error("Error trying to send data to topic {} with data {}", topico, payload, e);
+    /** Envio assíncrono com janela limitada e callbacks de confirmação **/
+    private final SagaSender<byte[]> sender;
+
+    /** Envios do lote em processamento pela thread atual, aguardados em awaitBatch **/
+    private final ThreadLocal<List<CompletableFuture<Void>>> batch = new ThreadLocal<>();
+
+    /**
+     * Método para envio de evento
+     * @param key chave do registro (transactionId), mantém os eventos da mesma saga na mesma partição
+     * @param payload evento codificado (JSON ou binário)
+     * @param topico tópico de destino
+     * @param headers dados de roteamento da saga (SagaHeaders)
+     */
+    public void sendEvent(String key, byte[] payload, String topico, Map<String, String> headers){
+        log.info("Sending event to topic {} with key {} ({} bytes as {})", topico, key, payload.length, headers.get(SagaWire.CONTENT_TYPE));
+        var result = sender.send(topico, key, payload, headers);
+        var pending = batch.get();
+        if (pending != null){
+            pending.add(result);
         }
     }
+
+    /** Passa a guardar os envios feitos pela thread atual até o awaitBatch **/
+    public void beginBatch(){
+        batch.set(new ArrayList<>());
+    }
+
+    /**
+     * Envia os registros acumulados e aguarda o resultado final de cada envio do lote, reenvios incluídos.
+     * @param timeoutMs espera máxima pelo lote inteiro
+     * @throws KafkaException se algum envio falhou ou não terminou no prazo, para que o lote não seja commitado
+     */
+    public void awaitBatch(long timeoutMs){
+        var pending = batch.get();
+        batch.remove();
+        sender.flush();
+        if (pending == null || pending.isEmpty()){
+            return;
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new KafkaException("Failed to send " + countFailed(pending) + " of " + pending.size() + " batch records", e.getCause());
+        } catch (TimeoutException e) {
+            throw new KafkaException("Batch sends not confirmed after " + timeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted waiting for batch sends", e);
+        }
+    }
+
+    /** Força o envio de todos os registros acumulados pelo produtor, bloqueando até a conclusão **/
+    public void flush(){
+        sender.flush();
+    }
+
+    private static long countFailed(List<CompletableFuture<Void>> pending){
+        return pending.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+    }
 }
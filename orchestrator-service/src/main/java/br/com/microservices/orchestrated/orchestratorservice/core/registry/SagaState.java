@@ -0,0 +1,79 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.registry;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import br.com.microservices.orchestrated.orchestratorservice.core.timeout.WheelTimeout;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Estado em memória de uma saga em andamento.
+ * Os campos mutáveis são voláteis: cada transação é atualizada pela thread do consumer que
+ * recebeu o último evento dela, e as consultas leem sem bloquear.
+ */
+@Getter
+public class SagaState {
+
+    private final String transactionId;
+    private final String orderId;
+    private final String sagaType;
+    private final Instant startedAt;
+    private volatile List<ETopics> currentTopics;
+    private volatile EEventSource lastSource;
+    private volatile ESagaStatus lastStatus;
+    private volatile Instant stepStartedAt;
+    /** Prazo armado para o passo atual, trocado atomicamente entre a thread do consumer e a da roda de tempo **/
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<WheelTimeout> stepTimeout = new AtomicReference<>();
+
+    SagaState(String transactionId, String orderId, String sagaType, Instant startedAt) {
+        this.transactionId = transactionId;
+        this.orderId = orderId;
+        this.sagaType = sagaType;
+        this.startedAt = startedAt;
+        this.stepStartedAt = startedAt;
+        this.currentTopics = List.of();
+    }
+
+    void advance(List<ETopics> topics, EEventSource source, ESagaStatus status, Instant now) {
+        this.currentTopics = topics;
+        this.lastSource = source;
+        this.lastStatus = status;
+        this.stepStartedAt = now;
+    }
+
+    /**
+     * Troca o prazo do passo atual
+     * @return prazo anterior, para ser cancelado pelo chamador
+     */
+    public WheelTimeout replaceStepTimeout(WheelTimeout timeout) {
+        return stepTimeout.getAndSet(timeout);
+    }
+
+    /**
+     * Consome o prazo expirado, apenas se ele ainda for o prazo do passo atual
+     * @return false se o passo já respondeu ou avançou
+     */
+    public boolean completeStepTimeout(WheelTimeout timeout) {
+        return timeout != null && stepTimeout.compareAndSet(timeout, null);
+    }
+
+    /** Nome do passo atual: o tópico publicado, ou os tópicos dos ramos quando o passo é paralelo **/
+    public String getStep() {
+        var topics = currentTopics;
+        if (topics.isEmpty()) {
+            return "NOT_STARTED";
+        }
+        if (topics.size() == 1) {
+            return topics.get(0).name();
+        }
+        return String.join("+", topics.stream().map(ETopics::name).toList());
+    }
+}
@@ -0,0 +1,170 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.registry;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaInFlightSummary;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaRouting;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.FAIL;
+
+/**
+ * Registro das sagas em andamento nesta instância do orquestrador, indexado por transactionId.
+ * O ConcurrentHashMap particiona o lock por bin, então atualizações de transações diferentes
+ * vindas das threads dos consumers não disputam entre si, e as leituras não bloqueiam.
+ * As contagens por passo e a ordem de início são mantidas a cada transição, dentro do compute da própria
+ * transação, então o resumo do /api/saga/in-flight não percorre as sagas em andamento.
+ */
+@Slf4j
+@Component
+public class SagaStateRegistry {
+
+    private static final Comparator<SagaState> START_ORDER = Comparator
+            .comparing(SagaState::getStartedAt)
+            .thenComparing(SagaState::getTransactionId);
+
+    private final Map<String, SagaState> sagas = new ConcurrentHashMap<>();
+    /** Sagas em andamento por passo atual, atualizadas junto com o registro **/
+    private final Map<String, LongAdder> countsByStep = new ConcurrentHashMap<>();
+    /** Sagas em andamento pela data de início: a primeira é a mais antiga **/
+    private final ConcurrentSkipListSet<SagaState> byStartedAt = new ConcurrentSkipListSet<>(START_ORDER);
+    private final LongAdder total = new LongAdder();
+    private final Clock clock = Clock.systemUTC();
+
+    /**
+     * Registra o início de uma saga
+     * @param event evento recebido do start-saga
+     */
+    public void start(Event event) {
+        var routing = SagaRouting.of(event);
+        sagas.compute(routing.transactionId(), (transactionId, previous) -> {
+            if (previous != null) {
+                untrack(previous);
+            }
+            return track(newState(routing));
+        });
+    }
+
+    /**
+     * Atualiza o passo atual de uma saga após a publicação nos tópicos informados.
+     * Sagas desconhecidas (ex: iniciadas antes de um restart) são registradas neste momento.
+     * @param routing dados de roteamento do evento publicado
+     * @param topics tópicos que receberam o evento
+     */
+    public void advance(SagaRouting routing, List<ETopics> topics) {
+        sagas.compute(routing.transactionId(), (transactionId, current) -> {
+            var state = current != null ? current : track(newState(routing));
+            var previousStep = state.getStep();
+            state.advance(topics, routing.source(), routing.status(), clock.instant());
+            moveStep(previousStep, state.getStep());
+            return state;
+        });
+    }
+
+    /**
+     * Remove a saga do registro ao ser finalizada com sucesso ou falha
+     * @param event evento de finalização
+     */
+    public void finish(Event event) {
+        var state = sagas.remove(event.getTransactionId());
+        if (state == null) {
+            return;
+        }
+        untrack(state);
+        var timeout = state.replaceStepTimeout(null);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Verifica se a resposta vem de um participante que o passo atual aguarda.
+     * Respostas atrasadas de um passo que já expirou e foi compensado não devem mover a saga.
+     * @return true se a saga não é conhecida ou se o source consome um dos tópicos do passo atual
+     * com um status compatível (FAIL responde rollback, SUCCESS e ROLLBACK_PENDING respondem execução)
+     */
+    public boolean isAwaitingReplyFrom(SagaRouting routing) {
+        var state = sagas.get(routing.transactionId());
+        if (state == null || state.getCurrentTopics().isEmpty()) {
+            return true;
+        }
+        return state.getCurrentTopics().stream().anyMatch(topic -> topic.getParticipant() == routing.source()
+                && topic.isRollback() == (routing.status() == FAIL));
+    }
+
+    public Optional<SagaState> find(String transactionId) {
+        return Optional.ofNullable(sagas.get(transactionId));
+    }
+
+    /**
+     * Resume as sagas em andamento: total, quantidade por passo e a saga mais antiga
+     * @return resumo lido dos contadores mantidos a cada transição, sem percorrer o registro
+     */
+    public SagaInFlightSummary summarize() {
+        var now = clock.instant();
+        var counts = new TreeMap<String, Long>();
+        countsByStep.forEach((step, count) -> {
+            var value = count.sum();
+            if (value > 0) {
+                counts.put(step, value);
+            }
+        });
+        var oldest = firstStarted();
+        return SagaInFlightSummary
+                .builder()
+                .totalInFlight(total.sum())
+                .countsByStep(counts)
+                .oldestTransactionId(oldest == null ? null : oldest.getTransactionId())
+                .oldestInFlightAgeMillis(oldest == null ? 0 : Duration.between(oldest.getStartedAt(), now).toMillis())
+                .build();
+    }
+
+    private SagaState firstStarted() {
+        try {
+            return byStartedAt.first();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    private SagaState track(SagaState state) {
+        total.increment();
+        byStartedAt.add(state);
+        countOf(state.getStep()).increment();
+        return state;
+    }
+
+    private void untrack(SagaState state) {
+        total.decrement();
+        byStartedAt.remove(state);
+        countOf(state.getStep()).decrement();
+    }
+
+    private void moveStep(String previousStep, String step) {
+        if (!previousStep.equals(step)) {
+            countOf(previousStep).decrement();
+            countOf(step).increment();
+        }
+    }
+
+    private LongAdder countOf(String step) {
+        return countsByStep.computeIfAbsent(step, ignored -> new LongAdder());
+    }
+
+    private SagaState newState(SagaRouting routing) {
+        return new SagaState(routing.transactionId(), routing.orderId(), routing.sagaType(), clock.instant());
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+
+import java.util.List;
+
+/**
+ * Resultado do processamento da resposta de um ramo paralelo.
+ * Enquanto o join aguarda outros ramos, topics traz apenas os rollbacks que devem ser publicados agora;
+ * quando o join termina, transition traz a saída do passo (próximo passo ou compensação do anterior).
+ */
+public record JoinOutcome(Event event, List<ETopics> topics, SagaTransition transition) {
+
+    static JoinOutcome waiting(Event event, List<ETopics> topics) {
+        return new JoinOutcome(event, topics, null);
+    }
+
+    static JoinOutcome finished(Event event, SagaTransition transition) {
+        return new JoinOutcome(event, List.of(), transition);
+    }
+
+    public boolean isFinished() {
+        return transition != null;
+    }
+}
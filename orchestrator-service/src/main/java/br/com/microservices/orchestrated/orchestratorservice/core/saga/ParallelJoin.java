@@ -0,0 +1,154 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estado do join de um passo paralelo para uma transação.
+ * Cada ramo evolui de forma independente; o passo só termina quando nenhum ramo está em andamento.
+ * Se algum ramo falhar, apenas os ramos que terminaram com sucesso são compensados.
+ * Um rollback que responde ROLLBACK_PENDING (falha da compensação, ou o prazo esgotado do SagaTimeoutScheduler)
+ * encerra o ramo como COMPENSATION_FAILED, para que o join termine e a saga finalize com FAIL em vez de ficar parada.
+ * Não é thread-safe: o SagaJoinCoordinator sincroniza o acesso.
+ */
+@Slf4j
+final class ParallelJoin {
+
+    enum BranchState {
+        PENDING,        // evento publicado, aguardando execução
+        SUCCEEDED,      // ramo executado com sucesso
+        ROLLING_BACK,   // ramo falhou e o rollback do próprio ramo foi publicado
+        COMPENSATING,   // ramo com sucesso sendo compensado por falha de outro ramo ou de passo posterior
+        COMPENSATED,    // rollback do ramo finalizado
+        COMPENSATION_FAILED // rollback do ramo falhou ou não respondeu; o join segue para a falha da saga
+    }
+
+    private final ParallelStage stage;
+    private final BranchState[] branches;
+    private Event merged;
+
+    ParallelJoin(ParallelStage stage, boolean compensation) {
+        this.stage = stage;
+        this.branches = new BranchState[stage.size()];
+        Arrays.fill(branches, compensation ? BranchState.COMPENSATING : BranchState.PENDING);
+    }
+
+    ParallelStage getStage() {
+        return stage;
+    }
+
+    JoinOutcome onReply(Event event) {
+        var branch = stage.branchIndexOf(event.getSource());
+        var topics = new ArrayList<ETopics>();
+        if (!accept(branch, event)) {
+            log.warn("Ignoring duplicated reply from {} with status {} for transaction {}",
+                    event.getSource(), event.getStatus(), event.getTransactionId());
+            return JoinOutcome.waiting(merged != null ? merged : event, topics);
+        }
+        merge(event);
+        if (branches[branch] == BranchState.COMPENSATION_FAILED) {
+            log.error("Compensation of branch {} failed for transaction {}, finishing the parallel step without it",
+                    event.getSource(), event.getTransactionId());
+        }
+        if (branches[branch] == BranchState.ROLLING_BACK) {
+            topics.add(stage.getBranches().get(branch).compensation());
+        }
+        if (anyIn(BranchState.PENDING)) {
+            return JoinOutcome.waiting(merged, topics);
+        }
+        if (allIn(BranchState.SUCCEEDED)) {
+            return JoinOutcome.finished(merged, stage.getNext());
+        }
+        /** Pelo menos um ramo falhou: compensa apenas os ramos que terminaram com sucesso **/
+        for (int i = 0; i < branches.length; i++) {
+            if (branches[i] == BranchState.SUCCEEDED) {
+                branches[i] = BranchState.COMPENSATING;
+                topics.add(stage.getBranches().get(i).compensation());
+            }
+        }
+        if (anyIn(BranchState.ROLLING_BACK) || anyIn(BranchState.COMPENSATING)) {
+            return JoinOutcome.waiting(merged, topics);
+        }
+        return JoinOutcome.finished(merged, stage.getPrevious());
+    }
+
+    /** Tópicos dos ramos ainda sem resposta: execução para os pendentes, rollback para os em compensação **/
+    List<ETopics> outstandingTopics() {
+        var topics = new ArrayList<ETopics>();
+        for (int i = 0; i < branches.length; i++) {
+            var step = stage.getBranches().get(i);
+            switch (branches[i]) {
+                case PENDING -> topics.add(step.topic());
+                case ROLLING_BACK, COMPENSATING -> topics.add(step.compensation());
+                default -> { }
+            }
+        }
+        return topics;
+    }
+
+    /** Aplica a resposta ao estado do ramo, recusando respostas que não fazem sentido no estado atual **/
+    private boolean accept(int branch, Event event) {
+        var current = branches[branch];
+        var next = switch (event.getStatus()) {
+            case SUCCESS -> current == BranchState.PENDING ? BranchState.SUCCEEDED : null;
+            case ROLLBACK_PENDING -> switch (current) {
+                case PENDING -> BranchState.ROLLING_BACK;
+                case ROLLING_BACK, COMPENSATING -> BranchState.COMPENSATION_FAILED;
+                default -> null;
+            };
+            case FAIL -> current == BranchState.ROLLING_BACK || current == BranchState.COMPENSATING
+                    ? BranchState.COMPENSATED : null;
+        };
+        if (next == null) {
+            return false;
+        }
+        branches[branch] = next;
+        return true;
+    }
+
+    /**
+     * O primeiro ramo que responde vira a base do evento; dos demais são copiados os totais
+     * calculados no payload e a maior sequência de histórico. Os históricos de cada ramo já foram
+     * entregues ao order-service na própria resposta, então não são juntados aqui.
+     */
+    private void merge(Event event) {
+        if (merged == null) {
+            merged = event;
+            return;
+        }
+        merged.setHistorySequence(Math.max(merged.getHistorySequence(), event.getHistorySequence()));
+        if (event.getPayload() != null && merged.getPayload() != null) {
+            if (event.getPayload().getTotalAmount() > 0) {
+                merged.getPayload().setTotalAmount(event.getPayload().getTotalAmount());
+            }
+            if (event.getPayload().getTotalItems() > 0) {
+                merged.getPayload().setTotalItems(event.getPayload().getTotalItems());
+            }
+        }
+        merged.setSource(event.getSource());
+        merged.setStatus(event.getStatus());
+    }
+
+    private boolean anyIn(BranchState state) {
+        for (var branch : branches) {
+            if (branch == state) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean allIn(BranchState state) {
+        for (var branch : branches) {
+            if (branch != state) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
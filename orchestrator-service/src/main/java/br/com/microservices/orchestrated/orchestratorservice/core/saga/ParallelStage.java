@@ -0,0 +1,49 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Passo paralelo compilado de uma saga: os ramos publicados ao mesmo tempo e as transições
+ * que o join segue quando todos os ramos terminam com sucesso (next) ou quando a compensação
+ * dos ramos termina (previous).
+ */
+@Getter
+public final class ParallelStage {
+
+    private final int index;
+    private final List<SagaStep> branches;
+    /** Índice do ramo de cada source, indexado por source.ordinal(), -1 quando não pertence ao passo **/
+    @Getter(AccessLevel.NONE)
+    private final int[] branchBySource;
+    private SagaTransition next;
+    private SagaTransition previous;
+
+    ParallelStage(int index, List<SagaStep> branches) {
+        this.index = index;
+        this.branches = List.copyOf(branches);
+        this.branchBySource = new int[EEventSource.values().length];
+        Arrays.fill(branchBySource, -1);
+        for (int i = 0; i < branches.size(); i++) {
+            branchBySource[branches.get(i).source().ordinal()] = i;
+        }
+    }
+
+    /** Liga as transições de saída do passo; chamado uma única vez durante a compilação **/
+    void link(SagaTransition next, SagaTransition previous) {
+        this.next = next;
+        this.previous = previous;
+    }
+
+    public int branchIndexOf(EEventSource source) {
+        return branchBySource[source.ordinal()];
+    }
+
+    public int size() {
+        return branches.size();
+    }
+}
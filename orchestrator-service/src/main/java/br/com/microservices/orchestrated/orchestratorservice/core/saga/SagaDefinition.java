@@ -0,0 +1,114 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.List;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.ORCHESTRATOR;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.*;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.FINISH_FAIL;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.FINISH_SUCCESS;
+import static java.lang.String.format;
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+/**
+ * Definição declarativa de um tipo de saga como uma sequência de passos.
+ * Pode ser criada via builder (ex: um @Bean) ou pelo application.yml em saga.definitions.
+ *
+ * Exemplo:
+ * SagaDefinition.builder()
+ *     .sagaType("PRE_ORDER")
+ *     .step(SagaStep.of(PRODUCT_VALIDATION_SERVICE, PRODUCT_VALIDATION_SUCCESS, PRODUCT_VALIDATION_FAIL))
+ *     .step(SagaStep.of(PAYMENT_SERVICE, PAYMENT_SUCCESS, PAYMENT_FAIL))
+ *     .build();
+ */
+@Getter
+@Builder
+public class SagaDefinition {
+
+    private final String sagaType;
+    @Singular
+    private final List<SagaStep> steps;
+
+    /**
+     * Compila a definição para uma tabela de transições, seguindo as mesmas regras do SAGA_HANDLER:
+     * SUCCESS avança para o próximo passo, ROLLBACK_PENDING faz rollback do passo atual
+     * e FAIL faz rollback do passo anterior, finalizando com FINISH_SUCCESS ou FINISH_FAIL.
+     * Entrar em um passo paralelo publica em todos os ramos de uma vez, e o SUCCESS/FAIL
+     * dos ramos é resolvido pelo join do passo.
+     * @return tabela imutável pronta para consulta
+     */
+    public SagaTransitionTable compile() {
+        validateSteps();
+        var count = steps.size();
+        var stages = new ParallelStage[count];
+        var stagesBySource = SagaTransitionTable.newStages();
+        for (int i = 0; i < count; i++) {
+            if (steps.get(i).isParallel()) {
+                stages[i] = new ParallelStage(i, steps.get(i).parallel());
+                for (var branch : steps.get(i).parallel()) {
+                    stagesBySource[branch.source().ordinal()] = stages[i];
+                }
+            }
+        }
+
+        /** forward[i] entra no passo i (ou finaliza com sucesso), backward[i + 1] compensa o passo i (ou finaliza com falha) **/
+        var forward = new SagaTransition[count + 1];
+        var backward = new SagaTransition[count + 1];
+        forward[count] = SagaTransition.of(FINISH_SUCCESS);
+        backward[0] = SagaTransition.of(FINISH_FAIL);
+        for (int i = 0; i < count; i++) {
+            forward[i] = stages[i] != null
+                    ? new SagaTransition(stages[i].getBranches().stream().map(SagaStep::topic).toList(), stages[i], false)
+                    : SagaTransition.of(steps.get(i).topic());
+            backward[i + 1] = stages[i] != null
+                    ? new SagaTransition(stages[i].getBranches().stream().map(SagaStep::compensation).toList(), stages[i], true)
+                    : SagaTransition.of(steps.get(i).compensation());
+        }
+
+        var transitions = SagaTransitionTable.newTransitions();
+        SagaTransitionTable.put(transitions, ORCHESTRATOR, SUCCESS, forward[0]);
+        SagaTransitionTable.put(transitions, ORCHESTRATOR, FAIL, backward[0]);
+        for (int i = 0; i < count; i++) {
+            if (stages[i] != null) {
+                stages[i].link(forward[i + 1], backward[i]);
+                for (var branch : stages[i].getBranches()) {
+                    SagaTransitionTable.put(transitions, branch.source(), ROLLBACK_PENDING, SagaTransition.of(branch.compensation()));
+                }
+            } else {
+                var step = steps.get(i);
+                SagaTransitionTable.put(transitions, step.source(), ROLLBACK_PENDING, SagaTransition.of(step.compensation()));
+                SagaTransitionTable.put(transitions, step.source(), FAIL, backward[i]);
+                SagaTransitionTable.put(transitions, step.source(), SUCCESS, forward[i + 1]);
+            }
+        }
+        return new SagaTransitionTable(transitions, stagesBySource);
+    }
+
+    private void validateSteps() {
+        if (isEmpty(sagaType) || isEmpty(steps)) {
+            throw new IllegalStateException("Saga definitions must inform the saga type and at least one step.");
+        }
+        for (var step : steps) {
+            if (step.isParallel()) {
+                if (step.parallel().size() < 2) {
+                    throw new IllegalStateException(format("Parallel steps of saga %s must have at least two branches.", sagaType));
+                }
+                step.parallel().forEach(this::validateSingleStep);
+            } else {
+                validateSingleStep(step);
+            }
+        }
+    }
+
+    private void validateSingleStep(SagaStep step) {
+        if (step.isParallel() || step.source() == null || step.topic() == null || step.compensation() == null) {
+            throw new IllegalStateException(format("Steps of saga %s must inform source, topic and compensation.", sagaType));
+        }
+        if (step.source() == ORCHESTRATOR) {
+            throw new IllegalStateException(format("Saga %s cannot use ORCHESTRATOR as a step.", sagaType));
+        }
+    }
+}
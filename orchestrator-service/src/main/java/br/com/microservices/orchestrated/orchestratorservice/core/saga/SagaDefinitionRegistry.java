@@ -0,0 +1,61 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.config.exception.ValidationException;
+import br.com.microservices.orchestrated.orchestratorservice.config.saga.SagaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaHandler.SAGA_HANDLER;
+import static java.lang.String.format;
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+/**
+ * Registro de todos os tipos de saga carregados. Cada definição é compilada uma única vez
+ * na inicialização para uma SagaTransitionTable imutável; o evento escolhe a tabela pelo campo sagaType.
+ * Eventos sem sagaType seguem o fluxo padrão do SAGA_HANDLER.
+ */
+@Slf4j
+@Component
+public class SagaDefinitionRegistry {
+
+    public static final String DEFAULT_SAGA_TYPE = "ORDER";
+
+    private final Map<String, SagaTransitionTable> transitionTables;
+
+    public SagaDefinitionRegistry(ObjectProvider<SagaDefinition> definitionBeans, SagaProperties properties) {
+        var tables = new HashMap<String, SagaTransitionTable>();
+        tables.put(DEFAULT_SAGA_TYPE, SagaTransitionTable.compile(SAGA_HANDLER));
+        definitionBeans.orderedStream().forEach(definition -> register(tables, definition));
+        properties.getDefinitions().forEach((sagaType, steps) -> register(tables, SagaDefinition
+                .builder()
+                .sagaType(sagaType)
+                .steps(steps)
+                .build()));
+        transitionTables = Map.copyOf(tables);
+        log.info("Saga types loaded: {}", transitionTables.keySet());
+    }
+
+    /**
+     * Seleciona a tabela de transições do tipo de saga do evento
+     * @param sagaType tipo de saga, ou vazio para o fluxo padrão
+     * @return tabela compilada
+     */
+    public SagaTransitionTable getTransitionTable(String sagaType) {
+        var table = transitionTables.get(isEmpty(sagaType) ? DEFAULT_SAGA_TYPE : sagaType);
+        if (table == null) {
+            throw new ValidationException(format("Saga type %s not found!", sagaType));
+        }
+        return table;
+    }
+
+    private void register(Map<String, SagaTransitionTable> tables, SagaDefinition definition) {
+        if (tables.containsKey(definition.getSagaType())) {
+            throw new IllegalStateException(format("Saga type %s is already defined.", definition.getSagaType()));
+        }
+        tables.put(definition.getSagaType(), definition.compile());
+    }
+}
@@ -2,15 +2,14 @@ package br.com.microservices.orchestrated.orchestratorservice.core.saga;
 
 import br.com.microservices.orchestrated.orchestratorservice.config.exception.ValidationException;
 import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaRouting;
 import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.util.List;
 
-
-import static br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaHandler.*;
 import static java.lang.String.format;
 import static org.springframework.util.ObjectUtils.isEmpty;
 
@@ -22,59 +21,76 @@ public class SagaExecutionController {
 
     private static final String SAGA_LOG_ID = "ORDER ID: %s | TRANSACTION ID: %s | EVENT ID: %s";
 
+    /** Tabelas de transição compiladas na inicialização, uma por tipo de saga **/
+    private final SagaDefinitionRegistry sagaDefinitionRegistry;
+
     /**
-     * Método para receber o evento e selecionar o proximo topico a ser enviado pelo orquestrador
+     * Método para receber o evento e selecionar a proxima transição (um ou mais topicos) a ser enviada pelo orquestrador
      * @param event
      * @return
      */
-    public ETopics getNextTopic(Event event){
-        if(isEmpty(event.getSource()) || isEmpty(event.getStatus())){
-            throw new ValidationException("Source and Status must be Informed!!");
-        }
-        var topic = findTopicBySourceAndStatus(event);
-        logCurrentSaga(event, topic);
-        return topic;
+    public SagaTransition getNextTransition(Event event){
+        return getNextTransition(SagaRouting.of(event));
     }
 
+    /**
+     * Seleciona a proxima transição apenas pelos dados de roteamento, sem precisar do payload do evento
+     * @param routing
+     * @return
+     */
+    public SagaTransition getNextTransition(SagaRouting routing){
+        validateSourceAndStatus(routing);
+        var transition = findTransitionBySourceAndStatus(routing);
+        logCurrentSaga(routing, transition.topics());
+        return transition;
+    }
 
     /**
-     * Procura o proximo topico comparando com os itens da matrix saga_handler
+     * Verifica se o source do evento é ramo de um passo paralelo do tipo de saga do evento
      * @param event
-     * @return
+     * @return passo paralelo ou null quando o source pertence a um passo sequencial
      */
-    private ETopics findTopicBySourceAndStatus(Event event){
-                        //Utiliza uma stream para transformar em array
-        return (ETopics) (Arrays.stream(SAGA_HANDLER)
-                //Itera pelas linhas do array e verifica se o evento é igual ao primeiro e segundo item da coluna
-                .filter(row -> isEventSourceAndStatusValid(event, row))
-                        //Converte o resultado para um objeto pelo terceiro index que é o valor do topico
-                        .map(i -> i[TOPIC_INDEX])
-                        .findFirst()
-                        .orElseThrow(() -> new ValidationException("Topic not found!")));
+    public ParallelStage findParallelStage(Event event){
+        return findParallelStage(SagaRouting.of(event));
+    }
+
+    public ParallelStage findParallelStage(SagaRouting routing){
+        validateSourceAndStatus(routing);
+        return sagaDefinitionRegistry
+                .getTransitionTable(routing.sagaType())
+                .findParallelStage(routing.source());
+    }
 
+    private void validateSourceAndStatus(SagaRouting routing){
+        if(isEmpty(routing.source()) || isEmpty(routing.status())){
+            throw new ValidationException("Source and Status must be Informed!!");
+        }
     }
 
     /**
-     * Valida se o source event e status existem
-     * @param event
-     * @param row
+     * Procura a proxima transição na tabela de transições do tipo de saga do evento
+     * @param routing
      * @return
      */
-    private boolean isEventSourceAndStatusValid(Event event, Object[] row){
-        var source = row[EVENT_SOURCE_INDEX];
-        var status = row[SAGA_STATUS_INDEX];
-        return event.getSource().equals(source) && event.getStatus().equals(status);
+    private SagaTransition findTransitionBySourceAndStatus(SagaRouting routing){
+        var transition = sagaDefinitionRegistry
+                .getTransitionTable(routing.sagaType())
+                .findTransition(routing.source(), routing.status());
+        if (transition == null){
+            throw new ValidationException("Topic not found!");
+        }
+        return transition;
     }
 
     /**
      * Seleciona o tipo de log success, rollback e fail
-     * @param event
+     * @param routing
      * @param topic
      */
-    private void logCurrentSaga(Event event, ETopics topic){
-            var sagaId = createSagaId(event);
-            var source = event.getSource();
-            switch (event.getStatus()){
+    private void logCurrentSaga(SagaRouting routing, List<ETopics> topic){
+            var sagaId = createSagaId(routing);
+            var source = routing.source();
+            switch (routing.status()){
                 case SUCCESS -> log.info("### CURRENT SAGA: {} | SUCCESS | NEXT TOPIC {} | {}",
                         source, topic, sagaId);
                 case ROLLBACK_PENDING -> log.info("### CURRENT SAGA: {} | SENDING TO ROLLBACK CURRENT SERVICE | NEXT TOPIC {} | {}",
@@ -86,8 +102,8 @@ public class SagaExecutionController {
     }
 
     /** Complemento dos logs para sagaId **/
-    private String  createSagaId(Event event){
+    private String  createSagaId(SagaRouting routing){
         return format(SAGA_LOG_ID,
-                event.getPayload().getId(), event.getTransactionId(), event.getId());
+                routing.orderId(), routing.transactionId(), routing.eventId());
     }
 }
@@ -0,0 +1,71 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.config.exception.ValidationException;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Coordena os joins dos passos paralelos em andamento, um por transactionId.
+ * O join é aberto antes da publicação nos ramos e removido quando o passo termina.
+ */
+@Slf4j
+@Component
+public class SagaJoinCoordinator {
+
+    private final Map<String, ParallelJoin> joins = new ConcurrentHashMap<>();
+
+    /**
+     * Abre o join de um passo paralelo que está sendo publicado
+     * @param event evento publicado nos ramos
+     * @param transition transição que entra no passo paralelo
+     */
+    public void open(Event event, SagaTransition transition) {
+        joins.put(event.getTransactionId(), new ParallelJoin(transition.stage(), transition.compensation()));
+        log.info("### PARALLEL STEP {} OPENED FOR TRANSACTION {} | BRANCHES {} | COMPENSATION {}",
+                transition.stage().getIndex(), event.getTransactionId(), transition.topics(), transition.compensation());
+    }
+
+    /**
+     * Registra a resposta de um ramo e informa o que deve ser publicado em seguida
+     * @param event resposta do ramo
+     * @param stage passo paralelo do qual o source do evento faz parte
+     * @return rollbacks a publicar enquanto aguarda, ou a transição de saída quando o passo termina
+     */
+    public JoinOutcome onBranchReply(Event event, ParallelStage stage) {
+        var join = joins.get(event.getTransactionId());
+        if (join == null || join.getStage() != stage) {
+            throw new ValidationException(format("No parallel step in progress for transaction %s.", event.getTransactionId()));
+        }
+        synchronized (join) {
+            var outcome = join.onReply(event);
+            if (outcome.isFinished()) {
+                joins.remove(event.getTransactionId(), join);
+                log.info("### PARALLEL STEP {} JOINED FOR TRANSACTION {} | NEXT TOPICS {}",
+                        stage.getIndex(), event.getTransactionId(), outcome.transition().topics());
+            }
+            return outcome;
+        }
+    }
+
+    /**
+     * Tópicos do passo paralelo em andamento que ainda aguardam resposta
+     * @return tópicos pendentes ou null se a transação não está em um passo paralelo
+     */
+    public List<ETopics> findOutstandingTopics(String transactionId) {
+        var join = joins.get(transactionId);
+        if (join == null) {
+            return null;
+        }
+        synchronized (join) {
+            return join.outstandingTopics();
+        }
+    }
+}
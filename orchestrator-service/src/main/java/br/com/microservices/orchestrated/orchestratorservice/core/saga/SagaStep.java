@@ -0,0 +1,29 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+
+import java.util.List;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+/**
+ * Passo de uma saga: qual serviço participa, em qual tópico ele recebe o evento de execução
+ * e em qual tópico ele recebe o evento de rollback.
+ * Um passo paralelo informa apenas os ramos em parallel, que são publicados ao mesmo tempo
+ * e aguardados por um join antes do próximo passo.
+ */
+public record SagaStep(EEventSource source, ETopics topic, ETopics compensation, List<SagaStep> parallel) {
+
+    public static SagaStep of(EEventSource source, ETopics topic, ETopics compensation) {
+        return new SagaStep(source, topic, compensation, null);
+    }
+
+    public static SagaStep parallel(SagaStep... branches) {
+        return new SagaStep(null, null, null, List.of(branches));
+    }
+
+    public boolean isParallel() {
+        return !isEmpty(parallel);
+    }
+}
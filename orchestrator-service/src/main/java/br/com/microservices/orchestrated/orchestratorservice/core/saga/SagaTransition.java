@@ -0,0 +1,22 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+
+import java.util.List;
+
+/**
+ * Resultado de uma consulta na tabela de transições: os tópicos que devem receber o evento.
+ * Quando a transição entra em um passo paralelo, stage aponta para ele e o orquestrador abre um join;
+ * compensation indica se o join aguarda rollbacks (FAIL) em vez de execuções.
+ * As instâncias são criadas apenas na compilação da tabela e reaproveitadas em todos os eventos.
+ */
+public record SagaTransition(List<ETopics> topics, ParallelStage stage, boolean compensation) {
+
+    public static SagaTransition of(ETopics topic) {
+        return new SagaTransition(List.of(topic), null, false);
+    }
+
+    public boolean isParallel() {
+        return stage != null;
+    }
+}
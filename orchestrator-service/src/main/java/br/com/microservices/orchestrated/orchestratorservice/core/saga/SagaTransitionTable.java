@@ -0,0 +1,140 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.ORCHESTRATOR;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.ROLLBACK_PENDING;
+import static br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaHandler.*;
+import static java.lang.String.format;
+
+/**
+ * Tabela de transições da saga compilada a partir de uma matriz no formato do SAGA_HANDLER
+ * ou de uma SagaDefinition.
+ * Cada par (source, status) vira um índice plano calculado pelos ordinais dos enums,
+ * então a consulta da próxima transição é O(1) e não aloca nada por evento.
+ * A tabela é validada na compilação: linhas duplicadas ou transições faltando impedem a subida da aplicação.
+ */
+public final class SagaTransitionTable {
+
+    private static final int STATUS_COUNT = ESagaStatus.values().length;
+    private static final int SOURCE_COUNT = EEventSource.values().length;
+
+    /** Matriz achatada: posição source.ordinal() * STATUS_COUNT + status.ordinal() **/
+    private final SagaTransition[] transitions;
+    /** Passo paralelo de cada source que é ramo de um fork, indexado por source.ordinal() **/
+    private final ParallelStage[] stagesBySource;
+
+    SagaTransitionTable(SagaTransition[] transitions, ParallelStage[] stagesBySource) {
+        this.transitions = transitions;
+        this.stagesBySource = stagesBySource;
+        validateMissingTransitions();
+    }
+
+    /**
+     * Compila a matriz de transições, validando tipos, duplicidades e transições obrigatórias
+     * @param matrix linhas no formato {EEventSource, ESagaStatus, ETopics}
+     * @return tabela imutável pronta para consulta
+     */
+    public static SagaTransitionTable compile(Object[][] matrix) {
+        var transitions = newTransitions();
+        for (var row : matrix) {
+            if (!(row[EVENT_SOURCE_INDEX] instanceof EEventSource source)
+                    || !(row[SAGA_STATUS_INDEX] instanceof ESagaStatus status)
+                    || !(row[TOPIC_INDEX] instanceof ETopics topic)) {
+                throw new IllegalStateException("Invalid saga transition row. Expected {EEventSource, ESagaStatus, ETopics}.");
+            }
+            put(transitions, source, status, SagaTransition.of(topic));
+        }
+        return new SagaTransitionTable(transitions, newStages());
+    }
+
+    /**
+     * Procura o primeiro tópico da transição para o source e status informados
+     * @return tópico ou null se não existir transição
+     */
+    public ETopics find(EEventSource source, ESagaStatus status) {
+        var transition = findTransition(source, status);
+        return transition == null ? null : transition.topics().get(0);
+    }
+
+    /**
+     * Procura a transição completa (um ou vários tópicos) para o source e status informados
+     * @return transição ou null se não existir
+     */
+    public SagaTransition findTransition(EEventSource source, ESagaStatus status) {
+        return transitions[indexOf(source, status)];
+    }
+
+    /**
+     * Retorna o passo paralelo do qual o source é ramo
+     * @return passo paralelo ou null se o source pertence a um passo sequencial
+     */
+    public ParallelStage findParallelStage(EEventSource source) {
+        return stagesBySource[source.ordinal()];
+    }
+
+    static SagaTransition[] newTransitions() {
+        return new SagaTransition[SOURCE_COUNT * STATUS_COUNT];
+    }
+
+    static ParallelStage[] newStages() {
+        return new ParallelStage[SOURCE_COUNT];
+    }
+
+    static void put(SagaTransition[] transitions, EEventSource source, ESagaStatus status, SagaTransition transition) {
+        var index = indexOf(source, status);
+        if (transitions[index] != null) {
+            throw new IllegalStateException(format("Duplicated saga transition for source %s and status %s.", source, status));
+        }
+        transitions[index] = transition;
+    }
+
+    /**
+     * Todo source declarado precisa tratar todos os status que pode receber.
+     * O orquestrador nunca recebe ROLLBACK_PENDING, e os ramos de um passo paralelo
+     * têm SUCCESS e FAIL resolvidos pelo join, então só o rollback do próprio ramo é obrigatório.
+     */
+    private void validateMissingTransitions() {
+        var declaredSources = EnumSet.noneOf(EEventSource.class);
+        for (var source : EEventSource.values()) {
+            if (stagesBySource[source.ordinal()] != null) {
+                declaredSources.add(source);
+            }
+            for (var status : ESagaStatus.values()) {
+                if (transitions[indexOf(source, status)] != null) {
+                    declaredSources.add(source);
+                }
+            }
+        }
+        if (!declaredSources.contains(ORCHESTRATOR)) {
+            throw new IllegalStateException("Saga transitions must declare the ORCHESTRATOR source.");
+        }
+        var missing = new ArrayList<String>();
+        for (var source : declaredSources) {
+            for (var status : ESagaStatus.values()) {
+                if (isTransitionRequired(source, status) && transitions[indexOf(source, status)] == null) {
+                    missing.add(source + "/" + status);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing saga transitions: ".concat(String.join(", ", missing)));
+        }
+    }
+
+    private boolean isTransitionRequired(EEventSource source, ESagaStatus status) {
+        if (stagesBySource[source.ordinal()] != null) {
+            return status == ROLLBACK_PENDING;
+        }
+        return source != ORCHESTRATOR || status != ROLLBACK_PENDING;
+    }
+
+    private static int indexOf(EEventSource source, ESagaStatus status) {
+        return source.ordinal() * STATUS_COUNT + status.ordinal();
+    }
+}
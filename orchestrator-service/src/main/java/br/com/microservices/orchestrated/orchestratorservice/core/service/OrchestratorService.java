@@ -3,21 +3,32 @@ package br.com.microservices.orchestrated.orchestratorservice.core.service;
 
 import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
 import br.com.microservices.orchestrated.orchestratorservice.core.dto.History;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaRouting;
 import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
 import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
 import br.com.microservices.orchestrated.orchestratorservice.core.producer.SagaOrchestratorProducer;
+import br.com.microservices.orchestrated.orchestratorservice.core.registry.SagaStateRegistry;
+import br.com.microservices.orchestrated.orchestratorservice.core.saga.ParallelStage;
 import br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaExecutionController;
-import br.com.microservices.orchestrated.orchestratorservice.core.utils.JsonUtil;
+import br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaJoinCoordinator;
+import br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaTransition;
+import br.com.microservices.orchestrated.orchestratorservice.core.timeout.SagaStepTimeoutEvent;
+import br.com.microservices.orchestrated.orchestratorservice.core.timeout.SagaTimeoutScheduler;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.ORCHESTRATOR;
 import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.FAIL;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.ROLLBACK_PENDING;
 import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.SUCCESS;
 import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.NOTIFY_ENDING;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.SAGA_HISTORY;
 
 
 @Service
@@ -27,21 +38,27 @@ public class OrchestratorService {
 
     private final SagaOrchestratorProducer producer;
     private final SagaExecutionController sagaExecutionController;
-    private final JsonUtil jsonUtil;
+    private final SagaJoinCoordinator sagaJoinCoordinator;
+    private final SagaStateRegistry sagaStateRegistry;
+    private final SagaTimeoutScheduler sagaTimeoutScheduler;
+    private final SagaEventFormat<Event> eventFormat;
 
     public void startSaga(Event event){
         event.setSource(ORCHESTRATOR);
         event.setStatus(SUCCESS);
-        var topic = getTopic(event);
+        var transition = getTransition(event);
+        sagaStateRegistry.start(event);
         log.info("SAGA STARTED!");
-        addHistory(event, "Saga Started!");
-        sendToProducerWithTopic(event, topic);
+        publishHistory(event, "Saga Started!");
+        sendToProducerWithTransition(event, transition);
     }
 
     public void finishSagaSuccess(Event event){
         event.setSource(ORCHESTRATOR);
         event.setStatus(SUCCESS);
         log.info("SAGA FINISHED SUCCESSFULLY FOR EVENT {}", event.getId());
+        sagaStateRegistry.finish(event);
+        event.setEventHistory(null);
         addHistory(event, "Saga finished succesfully!");
         notifyFinishedSaga(event);
     }
@@ -50,27 +67,106 @@ public class OrchestratorService {
         event.setSource(ORCHESTRATOR);
         event.setStatus(FAIL);
         log.info("SAGA FINISHED WITH ERRORS FOR EVENT {}", event.getId());
+        sagaStateRegistry.finish(event);
+        event.setEventHistory(null);
         addHistory(event, "Saga finished with errors!");
         notifyFinishedSaga(event);
     }
 
     public void continueSaga(Event event){
-        var topic = getTopic(event);
+        var stage = sagaExecutionController.findParallelStage(event);
+        if (stage != null){
+            continueParallelSaga(event, stage);
+            return;
+        }
+        if (!sagaStateRegistry.isAwaitingReplyFrom(SagaRouting.of(event))){
+            log.warn("IGNORING LATE REPLY FROM {} WITH STATUS {} FOR EVENT {}", event.getSource(), event.getStatus(), event.getId());
+            return;
+        }
+        sagaTimeoutScheduler.disarm(event.getTransactionId());
+        var transition = getTransition(event);
         log.info("SAGA CONTINUING FOR EVENT {}", event.getId());
-        sendToProducerWithTopic(event, topic);
+        sendToProducerWithTransition(event, transition);
     }
 
-    private ETopics getTopic(Event event){
-        return sagaExecutionController.getNextTopic(event);
+    /**
+     * Resposta de um participante com os dados de roteamento nos headers: o próximo passo é decidido
+     * apenas pelos headers e o corpo é repassado sem ser desserializado, então o custo por passo não
+     * depende do tamanho do pedido. Passos paralelos precisam do evento completo para o join,
+     * então nesses casos (ou sem headers) o corpo é desserializado.
+     *
+     * @param payload corpo recebido, repassado sem alteração
+     * @param contentType formato do corpo recebido, mantido no repasse
+     * @param routing dados de roteamento lidos dos headers, ou null
+     */
+    public void continueSaga(byte[] payload, String contentType, SagaRouting routing){
+        if (routing == null || sagaExecutionController.findParallelStage(routing) != null){
+            continueSaga(eventFormat.decode(payload, contentType));
+            return;
+        }
+        if (!sagaStateRegistry.isAwaitingReplyFrom(routing)){
+            log.warn("IGNORING LATE REPLY FROM {} WITH STATUS {} FOR EVENT {}", routing.source(), routing.status(), routing.eventId());
+            return;
+        }
+        sagaTimeoutScheduler.disarm(routing.transactionId());
+        var transition = sagaExecutionController.getNextTransition(routing);
+        log.info("SAGA CONTINUING FOR EVENT {}", routing.eventId());
+        if (transition.isParallel()){
+            sendToProducerWithTransition(eventFormat.decode(payload, contentType), transition);
+            return;
+        }
+        publish(routing, transition.topics(), payload, contentType);
     }
 
     /**
-     *  Cria historico novo e adiciona na lista de historicos
+     * Resposta de um ramo de passo paralelo: o join decide se publica rollbacks e aguarda,
+     * ou se o passo terminou e a saga segue para a transição de saída.
+     *
+     * @param event
+     * @param stage
+     */
+    private void continueParallelSaga(Event event, ParallelStage stage){
+        var outcome = sagaJoinCoordinator.onBranchReply(event, stage);
+        log.info("SAGA PARALLEL BRANCH {} REPLIED WITH {} FOR EVENT {}", event.getSource(), event.getStatus(), event.getId());
+        if (outcome.isFinished()){
+            sendToProducerWithTransition(outcome.event(), outcome.transition());
+        } else {
+            outcome.topics().forEach(topic -> sendToProducerWithTopic(outcome.event(), topic));
+        }
+    }
+
+    /**
+     * Passo sem resposta dentro do prazo: simula a falha de cada participante pendente
+     * para que a saga siga o mesmo caminho de rollback de uma falha real.
+     * Para um rollback de ramo paralelo, o ROLLBACK_PENDING simulado é registrado pelo join como falha da compensação.
+     *
+     * @param timeout
+     */
+    @EventListener
+    public void handleStepTimeout(SagaStepTimeoutEvent timeout){
+        for (var topic : timeout.topics()){
+            var event = eventFormat.decode(timeout.payload(), timeout.contentType());
+            event.setSource(topic.getParticipant());
+            event.setStatus(ROLLBACK_PENDING);
+            publishHistory(event, String.format("Step %s timed out after %d retries!", topic.getTopic(), timeout.attempts()));
+            log.info("SAGA STEP {} TIMED OUT, COMPENSATING EVENT {}", topic, event.getId());
+            continueSaga(event);
+        }
+    }
+
+    private SagaTransition getTransition(Event event){
+        return sagaExecutionController.getNextTransition(event);
+    }
+
+    /**
+     *  Cria historico novo e adiciona na lista de historicos.
+     *  O historico de fim de saga segue no proprio notify-ending.
      *
      * @param event
      * @param message
+     * @return historico criado, com a sequência já atribuída
      */
-    private void addHistory(Event event, String message){
+    private History addHistory(Event event, String message){
         var history = History.builder()
                 .source(event.getSource())
                 .status(event.getStatus())
@@ -78,13 +174,85 @@ public class OrchestratorService {
                 .createdAt(LocalDateTime.now())
                 .build();
         event.addToHistory(history);
+        return history;
+    }
+
+    /**
+     *  Cria historico novo e o publica no saga-history na hora, como os participantes fazem nas respostas.
+     *  O evento segue para o próximo passo sem historico, então um restart do orquestrador no meio da saga
+     *  não perde o que já foi registrado.
+     *
+     * @param event
+     * @param message
+     */
+    private void publishHistory(Event event, String message){
+        var entry = Event.builder()
+                .id(event.getId())
+                .transactionId(event.getTransactionId())
+                .orderId(event.getOrderId())
+                .sagaType(event.getSagaType())
+                .source(event.getSource())
+                .status(event.getStatus())
+                .eventHistory(List.of(addHistory(event, message)))
+                .historySequence(event.getHistorySequence())
+                .createdAt(event.getCreatedAt())
+                .build();
+        var contentType = eventFormat.getContentType();
+        producer.sendEvent(entry.getTransactionId(), eventFormat.encode(entry, contentType), SAGA_HISTORY.getTopic(),
+                SagaRouting.of(entry).headers(contentType));
     }
 
     private void notifyFinishedSaga(Event event){
-        producer.sendEvent(jsonUtil.toJson(event), NOTIFY_ENDING.getTopic());
+        var contentType = eventFormat.getContentType();
+        producer.sendEvent(event.getTransactionId(), eventFormat.encode(event, contentType), NOTIFY_ENDING.getTopic(),
+                SagaRouting.of(event).headers(contentType));
     }
 
+    /**
+     * O evento sai sem historico: o que os participantes adicionaram já foi entregue ao order-service
+     * nas respostas, e o que o orquestrador adicionou foi publicado no saga-history.
+     * Apenas a historySequence continua viajando, para a numeração do próximo passo.
+     *
+     * @param event
+     * @param topic
+     */
     private void sendToProducerWithTopic(Event event, ETopics topic){
-        producer.sendEvent(jsonUtil.toJson(event), topic.getTopic());
+        event.setEventHistory(null);
+        var contentType = eventFormat.getContentType();
+        publish(SagaRouting.of(event), List.of(topic), eventFormat.encode(event, contentType), contentType);
+    }
+
+    /**
+     * Publica o evento, sem historico, em todos os topicos da transição. Ao entrar em um passo paralelo,
+     * o join é aberto antes da publicação para que nenhuma resposta chegue sem estado.
+     *
+     * @param event
+     * @param transition
+     */
+    private void sendToProducerWithTransition(Event event, SagaTransition transition){
+        if (transition.isParallel()){
+            sagaJoinCoordinator.open(event, transition);
+        }
+        event.setEventHistory(null);
+        var contentType = eventFormat.getContentType();
+        publish(SagaRouting.of(event), transition.topics(), eventFormat.encode(event, contentType), contentType);
+    }
+
+    /**
+     * Atualiza o registro, arma o prazo de resposta e publica o mesmo corpo em todos os tópicos.
+     * O prazo é armado antes da publicação, para que a resposta sempre o encontre.
+     *
+     * @param routing
+     * @param topics
+     * @param payload
+     * @param contentType
+     */
+    private void publish(SagaRouting routing, List<ETopics> topics, byte[] payload, String contentType){
+        sagaStateRegistry.advance(routing, topics);
+        var headers = routing.headers(contentType);
+        sagaTimeoutScheduler.arm(routing, topics, payload, headers);
+        for (var topic : topics){
+            producer.sendEvent(routing.transactionId(), payload, topic.getTopic(), headers);
+        }
     }
 }
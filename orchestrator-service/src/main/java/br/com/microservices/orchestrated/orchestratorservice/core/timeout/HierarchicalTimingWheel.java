@@ -0,0 +1,187 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.timeout;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Roda de tempo hierárquica (estilo kernel Linux / Kafka purgatory) para milhões de timers pendentes.
+ *
+ * - O nível 0 tem wheelSize slots de tickMillis; cada nível acima cobre wheelSize vezes o intervalo do anterior.
+ * - Agendar e cancelar são O(1): as threads chamadoras só enfileiram em filas lock-free,
+ *   e uma única thread da roda posiciona, cascateia e expira os timers a cada tick.
+ * - Ao completar uma volta de um nível, o slot correspondente do nível acima é redistribuído para os níveis abaixo.
+ *
+ * As tarefas expiradas rodam na thread da roda, então devem apenas repassar o trabalho para outro executor.
+ */
+@Slf4j
+public final class HierarchicalTimingWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int wheelBits;
+    private final int wheelMask;
+    private final int levels;
+    private final WheelTimeout.Bucket[][] wheels;
+    private final Queue<WheelTimeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final LongAdder pendingTimeouts = new LongAdder();
+    private final long startNanos;
+    private final Thread worker;
+    /** Tick atual, escrito apenas pela thread da roda **/
+    private long currentTick;
+    private volatile boolean running = true;
+
+    /**
+     * @param name nome da thread da roda
+     * @param tickMillis resolução de cada tick
+     * @param wheelSize quantidade de slots por nível, arredondada para potência de 2
+     * @param levels quantidade de níveis da hierarquia
+     */
+    public HierarchicalTimingWheel(String name, long tickMillis, int wheelSize, int levels) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel configuration.");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheelBits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+        this.wheelMask = (1 << wheelBits) - 1;
+        this.levels = Math.min(levels, 63 / wheelBits);
+        this.wheels = new WheelTimeout.Bucket[this.levels][1 << wheelBits];
+        for (var wheel : wheels) {
+            for (int slot = 0; slot < wheel.length; slot++) {
+                wheel[slot] = new WheelTimeout.Bucket();
+            }
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Agenda uma tarefa para rodar após o atraso informado
+     * @return handle para cancelamento
+     */
+    public WheelTimeout schedule(Runnable task, long delay, TimeUnit unit) {
+        var deadlineNanos = System.nanoTime() - startNanos + unit.toNanos(delay);
+        var deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+        var timeout = new WheelTimeout(this, deadlineTick, task);
+        pendingTimeouts.increment();
+        pendingAdds.offer(timeout);
+        return timeout;
+    }
+
+    public long pendingTimeouts() {
+        return pendingTimeouts.sum();
+    }
+
+    void onCancelled(WheelTimeout timeout) {
+        pendingTimeouts.decrement();
+        pendingCancels.offer(timeout);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            var nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            var sleepNanos = nextTickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            currentTick++;
+            processCancels();
+            processAdds();
+            cascade();
+            expire();
+        }
+    }
+
+    private void processCancels() {
+        WheelTimeout timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void processAdds() {
+        WheelTimeout timeout;
+        while ((timeout = pendingAdds.poll()) != null) {
+            if (!timeout.isCancelled()) {
+                place(timeout);
+            }
+        }
+    }
+
+    /** Redistribui os slots dos níveis que completaram uma volta, do nível mais alto para o mais baixo **/
+    private void cascade() {
+        for (int level = levels - 1; level > 0; level--) {
+            var shift = level * wheelBits;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            var bucket = wheels[level][(int) ((currentTick >>> shift) & wheelMask)];
+            var timeout = bucket.drain();
+            while (timeout != null) {
+                var next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                if (!timeout.isCancelled()) {
+                    place(timeout);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private void expire() {
+        var bucket = wheels[0][(int) (currentTick & wheelMask)];
+        var timeout = bucket.drain();
+        while (timeout != null) {
+            var next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            if (timeout.deadlineTick > currentTick) {
+                place(timeout);
+            } else if (timeout.expire()) {
+                pendingTimeouts.decrement();
+                try {
+                    timeout.task.run();
+                } catch (Exception e) {
+                    log.error("Error running expired timeout task", e);
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /** Escolhe o menor nível cujo alcance cobre o atraso restante do timer **/
+    private void place(WheelTimeout timeout) {
+        var delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            wheels[0][(int) (currentTick & wheelMask)].add(timeout);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            var shift = level * wheelBits;
+            if (delta < (1L << (shift + wheelBits)) || level == levels - 1) {
+                var deadline = Math.min(timeout.deadlineTick, currentTick + (1L << (shift + wheelBits)) - 1);
+                wheels[level][(int) ((deadline >>> shift) & wheelMask)].add(timeout);
+                return;
+            }
+        }
+    }
+}
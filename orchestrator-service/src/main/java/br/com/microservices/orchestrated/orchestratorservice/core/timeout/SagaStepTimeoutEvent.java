@@ -0,0 +1,17 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.timeout;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+
+import java.util.List;
+
+/**
+ * Evento de aplicação publicado quando um passo expira e deve ser compensado, ou quando o rollback
+ * de um ramo paralelo expira e deve ser registrado como falha da compensação.
+ * @param transactionId transação da saga
+ * @param payload último evento publicado no passo
+ * @param contentType formato do payload
+ * @param topics tópicos que não responderam: de execução, ou de rollback dentro de um passo paralelo
+ * @param attempts quantidade de republicações feitas antes de desistir
+ */
+public record SagaStepTimeoutEvent(String transactionId, byte[] payload, String contentType, List<ETopics> topics, int attempts) {
+}
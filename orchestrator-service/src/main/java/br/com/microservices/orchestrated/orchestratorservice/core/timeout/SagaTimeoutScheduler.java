@@ -0,0 +1,188 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.timeout;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaRouting;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETimeoutAction;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics;
+import br.com.microservices.orchestrated.orchestratorservice.core.producer.SagaOrchestratorProducer;
+import br.com.microservices.orchestrated.orchestratorservice.core.registry.SagaState;
+import br.com.microservices.orchestrated.orchestratorservice.core.registry.SagaStateRegistry;
+import br.com.microservices.orchestrated.orchestratorservice.core.saga.SagaJoinCoordinator;
+import br.com.microservices.orchestrated.sagacontracts.SagaWire;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prazo de resposta dos passos da saga.
+ * Ao publicar em um tópico de participante, um timer é armado na roda de tempo e guardado no SagaState;
+ * a resposta no tópico orchestrator cancela o timer. Tudo fica em memória, sem polling em banco.
+ * Na expiração o passo é republicado (RETRY) ou compensado (COMPENSATE). Rollbacks são sempre republicados;
+ * esgotadas as tentativas dentro de um passo paralelo, o ramo é dado como falha de compensação para que o join termine.
+ * Como o registro é local, prazos de sagas iniciadas antes de um restart só são armados no próximo passo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaTimeoutScheduler {
+
+    @Value("${saga.timeout.enabled:true}")
+    private boolean enabled;
+    @Value("${saga.timeout.step-timeout-ms:30000}")
+    private long stepTimeoutMs;
+    @Value("${saga.timeout.action:COMPENSATE}")
+    private ETimeoutAction action;
+    @Value("${saga.timeout.max-retries:3}")
+    private int maxRetries;
+    @Value("${saga.timeout.tick-ms:100}")
+    private long tickMs;
+    @Value("${saga.timeout.wheel-size:512}")
+    private int wheelSize;
+    @Value("${saga.timeout.levels:4}")
+    private int levels;
+
+    private final SagaStateRegistry sagaStateRegistry;
+    private final SagaJoinCoordinator sagaJoinCoordinator;
+    private final SagaOrchestratorProducer producer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private HierarchicalTimingWheel wheel;
+    /** As ações rodam fora da thread da roda para não atrasar os próximos ticks **/
+    private ExecutorService actionExecutor;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        wheel = new HierarchicalTimingWheel("saga-timeout-wheel", tickMs, wheelSize, levels);
+        actionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "saga-timeout-action");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Saga step timeout enabled: {} ms, action {}, max retries {}", stepTimeoutMs, action, maxRetries);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (wheel != null) {
+            wheel.close();
+            actionExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Arma o prazo do passo que acabou de ser publicado, substituindo o prazo anterior da saga.
+     * Tópicos do próprio orquestrador (finish, notify) não têm prazo.
+     * @param routing dados de roteamento do evento publicado
+     * @param topics tópicos que receberam o evento
+     * @param payload evento codificado, usado para republicar
+     * @param headers headers publicados junto com o evento
+     */
+    public void arm(SagaRouting routing, List<ETopics> topics, byte[] payload, Map<String, String> headers) {
+        if (!enabled || topics.stream().noneMatch(ETopics::isParticipantTopic)) {
+            disarm(routing.transactionId());
+            return;
+        }
+        arm(routing.transactionId(), topics, payload, headers, 0);
+    }
+
+    /**
+     * Cancela o prazo em andamento da saga, chamado quando a resposta do passo chega
+     */
+    public void disarm(String transactionId) {
+        sagaStateRegistry.find(transactionId).ifPresent(state -> cancel(state.replaceStepTimeout(null)));
+    }
+
+    public long pendingTimeouts() {
+        return wheel == null ? 0 : wheel.pendingTimeouts();
+    }
+
+    private void arm(String transactionId, List<ETopics> topics, byte[] payload, Map<String, String> headers, int attempt) {
+        var state = sagaStateRegistry.find(transactionId);
+        if (state.isEmpty()) {
+            return;
+        }
+        var deadline = new StepDeadline(transactionId, topics, payload, headers, attempt);
+        deadline.timeout = wheel.schedule(() -> actionExecutor.execute(deadline), stepTimeoutMs, TimeUnit.MILLISECONDS);
+        cancel(state.get().replaceStepTimeout(deadline.timeout));
+    }
+
+    private void onExpired(StepDeadline deadline) {
+        var state = sagaStateRegistry.find(deadline.transactionId).orElse(null);
+        if (state == null || !state.completeStepTimeout(deadline.timeout)) {
+            return;
+        }
+        var outstanding = sagaJoinCoordinator.findOutstandingTopics(deadline.transactionId);
+        var topics = outstanding != null ? outstanding : deadline.topics;
+        var executionTopics = topics.stream().filter(topic -> topic.isParticipantTopic() && !topic.isRollback()).toList();
+        var canRetry = deadline.attempt < maxRetries;
+        log.warn("Saga step {} timed out for transaction {} after {} ms (attempt {})",
+                topics, deadline.transactionId, stepTimeoutMs, deadline.attempt);
+        if (canRetry && (action == ETimeoutAction.RETRY || executionTopics.isEmpty())) {
+            retry(state, deadline, topics);
+        } else if (!executionTopics.isEmpty()) {
+            eventPublisher.publishEvent(new SagaStepTimeoutEvent(deadline.transactionId, deadline.payload,
+                    deadline.headers.get(SagaWire.CONTENT_TYPE), executionTopics, deadline.attempt));
+        } else if (outstanding != null) {
+            /** Rollbacks de um passo paralelo que não responderam: o join registra a falha da compensação e termina **/
+            var rollbackTopics = topics.stream().filter(ETopics::isParticipantTopic).toList();
+            log.error("Saga rollback {} for transaction {} did not respond after {} retries, failing the compensation",
+                    rollbackTopics, deadline.transactionId, deadline.attempt);
+            eventPublisher.publishEvent(new SagaStepTimeoutEvent(deadline.transactionId, deadline.payload,
+                    deadline.headers.get(SagaWire.CONTENT_TYPE), rollbackTopics, deadline.attempt));
+        } else {
+            log.error("Saga rollback {} for transaction {} did not respond after {} retries, giving up",
+                    topics, deadline.transactionId, deadline.attempt);
+        }
+    }
+
+    /** Rollbacks não têm compensação, então são sempre republicados até o limite de tentativas **/
+    private void retry(SagaState state, StepDeadline deadline, List<ETopics> topics) {
+        log.info("Retrying saga step {} for transaction {}", topics, state.getTransactionId());
+        topics.forEach(topic -> producer.sendEvent(deadline.transactionId, deadline.payload, topic.getTopic(), deadline.headers));
+        arm(deadline.transactionId, deadline.topics, deadline.payload, deadline.headers, deadline.attempt + 1);
+    }
+
+    private static void cancel(WheelTimeout timeout) {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private final class StepDeadline implements Runnable {
+        private final String transactionId;
+        private final List<ETopics> topics;
+        private final byte[] payload;
+        private final Map<String, String> headers;
+        private final int attempt;
+        private volatile WheelTimeout timeout;
+
+        private StepDeadline(String transactionId, List<ETopics> topics, byte[] payload, Map<String, String> headers, int attempt) {
+            this.transactionId = transactionId;
+            this.topics = topics;
+            this.payload = payload;
+            this.headers = headers;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public void run() {
+            try {
+                onExpired(this);
+            } catch (Exception e) {
+                log.error("Error handling saga step timeout for transaction {}", transactionId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.timeout;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timer agendado no HierarchicalTimingWheel.
+ * O cancelamento é um CAS de estado (O(1)); a remoção do bucket é feita pela thread da roda.
+ * Os ponteiros da lista do bucket só são acessados pela thread da roda.
+ */
+public final class WheelTimeout {
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    final long deadlineTick;
+    final Runnable task;
+    private final HierarchicalTimingWheel wheel;
+    private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+    WheelTimeout.Bucket bucket;
+    WheelTimeout prev;
+    WheelTimeout next;
+
+    WheelTimeout(HierarchicalTimingWheel wheel, long deadlineTick, Runnable task) {
+        this.wheel = wheel;
+        this.deadlineTick = deadlineTick;
+        this.task = task;
+    }
+
+    /**
+     * Cancela o timer se ele ainda não expirou
+     * @return true se este chamado cancelou o timer
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+            return false;
+        }
+        wheel.onCancelled(this);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == ST_CANCELLED;
+    }
+
+    public boolean isExpired() {
+        return state.get() == ST_EXPIRED;
+    }
+
+    boolean expire() {
+        return state.compareAndSet(ST_INIT, ST_EXPIRED);
+    }
+
+    /** Lista duplamente encadeada de timers de um slot da roda, com inserção e remoção O(1) **/
+    static final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(WheelTimeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /** Esvazia o bucket e retorna o primeiro timer da lista desencadeada **/
+        WheelTimeout drain() {
+            var first = head;
+            for (var timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.utils;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.History;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Order;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.OrderProducts;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Product;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventData;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventMapper;
+
+import java.util.ArrayList;
+
+/**
+ * Conversão do Event deste serviço para o SagaEventData, cujo formato binário fica no SagaEventCodec (saga-contracts).
+ * Origem e status são enums aqui e trafegam como texto.
+ */
+public final class EventWireMapper implements SagaEventMapper<Event> {
+
+    public static final EventWireMapper INSTANCE = new EventWireMapper();
+
+    private EventWireMapper() {
+    }
+
+    @Override
+    public SagaEventData toWire(Event event) {
+        var history = event.getEventHistory();
+        var wireHistory = history == null ? null : new ArrayList<SagaEventData.History>(history.size());
+        if (history != null) {
+            for (var entry : history) {
+                wireHistory.add(new SagaEventData.History(name(entry.getSource()), name(entry.getStatus()),
+                        entry.getMessage(), entry.getCreatedAt(), entry.getSequence()));
+            }
+        }
+        return new SagaEventData(event.getId(), event.getTransactionId(), event.getSagaType(), event.getOrderId(),
+                name(event.getSource()), name(event.getStatus()), event.getCreatedAt(), toWire(event.getPayload()),
+                wireHistory, event.getHistorySequence(), event.getPayloadHash());
+    }
+
+    @Override
+    public Event fromWire(SagaEventData data) {
+        var event = new Event();
+        event.setId(data.id());
+        event.setTransactionId(data.transactionId());
+        event.setSagaType(data.sagaType());
+        event.setOrderId(data.orderId());
+        event.setSource(toSource(data.source()));
+        event.setStatus(toStatus(data.status()));
+        event.setCreatedAt(data.createdAt());
+        event.setPayload(fromWire(data.payload()));
+        if (data.eventHistory() != null) {
+            var history = new ArrayList<History>(data.eventHistory().size());
+            for (var entry : data.eventHistory()) {
+                history.add(new History(toSource(entry.source()), toStatus(entry.status()), entry.message(),
+                        entry.createdAt(), entry.sequence()));
+            }
+            event.setEventHistory(history);
+        }
+        event.setHistorySequence(data.historySequence());
+        event.setPayloadHash(data.payloadHash());
+        return event;
+    }
+
+    private static SagaEventData.Order toWire(Order order) {
+        if (order == null) {
+            return null;
+        }
+        var products = order.getProducts();
+        var items = products == null ? null : new ArrayList<SagaEventData.Item>(products.size());
+        if (products != null) {
+            for (var item : products) {
+                var product = item.getProduct();
+                items.add(new SagaEventData.Item(
+                        product == null ? null : new SagaEventData.Product(product.getCode(), product.getUnitValue()),
+                        item.getQuantity()));
+            }
+        }
+        return new SagaEventData.Order(order.getId(), order.getTransactionId(), order.getCreatedAt(),
+                order.getTotalAmount(), order.getTotalItems(), items);
+    }
+
+    private static Order fromWire(SagaEventData.Order data) {
+        if (data == null) {
+            return null;
+        }
+        var order = new Order();
+        order.setId(data.id());
+        order.setTransactionId(data.transactionId());
+        order.setCreatedAt(data.createdAt());
+        order.setTotalAmount(data.totalAmount());
+        order.setTotalItems(data.totalItems());
+        if (data.products() != null) {
+            var products = new ArrayList<OrderProducts>(data.products().size());
+            for (var item : data.products()) {
+                var product = item.product() == null ? null : new Product(item.product().code(), item.product().unitValue());
+                products.add(new OrderProducts(product, item.quantity()));
+            }
+            order.setProducts(products);
+        }
+        return order;
+    }
+
+    private static String name(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static EEventSource toSource(String value) {
+        return value == null ? null : EEventSource.valueOf(value);
+    }
+
+    private static ESagaStatus toStatus(String value) {
+        return value == null ? null : ESagaStatus.valueOf(value);
+    }
+}
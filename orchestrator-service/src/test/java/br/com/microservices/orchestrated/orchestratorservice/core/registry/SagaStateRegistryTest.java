@@ -0,0 +1,73 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.registry;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.SagaRouting;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.ORCHESTRATOR;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.PAYMENT_SERVICE;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.SUCCESS;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.INVENTORY_SUCCESS;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.PAYMENT_SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SagaStateRegistryTest {
+
+    private final SagaStateRegistry registry = new SagaStateRegistry();
+
+    @Test
+    void countsSagasByCurrentStep() {
+        registry.start(event("first"));
+        registry.start(event("second"));
+        registry.advance(routing("first"), List.of(PAYMENT_SUCCESS));
+        registry.advance(routing("second"), List.of(PAYMENT_SUCCESS));
+        registry.advance(new SagaRouting("event", "first", "order", null, PAYMENT_SERVICE, SUCCESS), List.of(INVENTORY_SUCCESS));
+
+        var summary = registry.summarize();
+
+        assertThat(summary.getTotalInFlight()).isEqualTo(2);
+        assertThat(summary.getCountsByStep()).isEqualTo(Map.of("PAYMENT_SUCCESS", 1L, "INVENTORY_SUCCESS", 1L));
+        assertThat(summary.getOldestTransactionId()).isEqualTo("first");
+    }
+
+    @Test
+    void removesFinishedSagasFromCounters() {
+        registry.start(event("first"));
+        registry.start(event("second"));
+        registry.advance(routing("first"), List.of(PAYMENT_SUCCESS));
+
+        registry.finish(event("first"));
+
+        var summary = registry.summarize();
+        assertThat(summary.getTotalInFlight()).isEqualTo(1);
+        assertThat(summary.getCountsByStep()).isEqualTo(Map.of("NOT_STARTED", 1L));
+        assertThat(summary.getOldestTransactionId()).isEqualTo("second");
+    }
+
+    @Test
+    void tracksSagasUnknownToThisInstance() {
+        registry.advance(routing("restarted"), List.of(PAYMENT_SUCCESS));
+        registry.finish(event("never-started"));
+
+        var summary = registry.summarize();
+        assertThat(summary.getTotalInFlight()).isEqualTo(1);
+        assertThat(summary.getCountsByStep()).isEqualTo(Map.of("PAYMENT_SUCCESS", 1L));
+    }
+
+    private static Event event(String transactionId) {
+        return Event.builder()
+                .id("event")
+                .transactionId(transactionId)
+                .orderId("order")
+                .source(ORCHESTRATOR)
+                .status(SUCCESS)
+                .build();
+    }
+
+    private static SagaRouting routing(String transactionId) {
+        return SagaRouting.of(event(transactionId));
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.microservices.orchestrated.orchestratorservice.core.saga;
+
+import br.com.microservices.orchestrated.orchestratorservice.core.dto.Event;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource;
+import br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.INVENTORY_SERVICE;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.EEventSource.PAYMENT_SERVICE;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.FAIL;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.ROLLBACK_PENDING;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ESagaStatus.SUCCESS;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.FINISH_FAIL;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.FINISH_SUCCESS;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.INVENTORY_FAIL;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.INVENTORY_SUCCESS;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.PAYMENT_FAIL;
+import static br.com.microservices.orchestrated.orchestratorservice.core.enums.ETopics.PAYMENT_SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelJoinTest {
+
+    private static final SagaTransition NEXT = SagaTransition.of(FINISH_SUCCESS);
+    private static final SagaTransition PREVIOUS = SagaTransition.of(FINISH_FAIL);
+
+    private ParallelStage stage;
+
+    @BeforeEach
+    void setUp() {
+        stage = new ParallelStage(1, List.of(
+                SagaStep.of(PAYMENT_SERVICE, PAYMENT_SUCCESS, PAYMENT_FAIL),
+                SagaStep.of(INVENTORY_SERVICE, INVENTORY_SUCCESS, INVENTORY_FAIL)));
+        stage.link(NEXT, PREVIOUS);
+    }
+
+    @Test
+    void finishesToNextWhenAllBranchesSucceed() {
+        var join = new ParallelJoin(stage, false);
+
+        assertThat(join.onReply(reply(PAYMENT_SERVICE, SUCCESS)).isFinished()).isFalse();
+        var outcome = join.onReply(reply(INVENTORY_SERVICE, SUCCESS));
+
+        assertThat(outcome.transition()).isSameAs(NEXT);
+    }
+
+    @Test
+    void compensatesSucceededBranchesAndFinishesToPrevious() {
+        var join = new ParallelJoin(stage, false);
+        join.onReply(reply(PAYMENT_SERVICE, SUCCESS));
+
+        var failed = join.onReply(reply(INVENTORY_SERVICE, ROLLBACK_PENDING));
+        assertThat(failed.isFinished()).isFalse();
+        assertThat(failed.topics()).containsExactlyInAnyOrder(INVENTORY_FAIL, PAYMENT_FAIL);
+
+        assertThat(join.onReply(reply(INVENTORY_SERVICE, FAIL)).isFinished()).isFalse();
+        assertThat(join.onReply(reply(PAYMENT_SERVICE, FAIL)).transition()).isSameAs(PREVIOUS);
+    }
+
+    @Test
+    void failedCompensationOfSucceededBranchFinishesToPrevious() {
+        var join = new ParallelJoin(stage, false);
+        join.onReply(reply(PAYMENT_SERVICE, SUCCESS));
+        join.onReply(reply(INVENTORY_SERVICE, ROLLBACK_PENDING));
+        join.onReply(reply(INVENTORY_SERVICE, FAIL));
+
+        var outcome = join.onReply(reply(PAYMENT_SERVICE, ROLLBACK_PENDING));
+
+        assertThat(outcome.transition()).isSameAs(PREVIOUS);
+        assertThat(join.outstandingTopics()).isEmpty();
+    }
+
+    @Test
+    void failedRollbackOfFailedBranchFinishesToPrevious() {
+        var join = new ParallelJoin(stage, false);
+        join.onReply(reply(PAYMENT_SERVICE, ROLLBACK_PENDING));
+        join.onReply(reply(INVENTORY_SERVICE, ROLLBACK_PENDING));
+        join.onReply(reply(PAYMENT_SERVICE, FAIL));
+
+        var outcome = join.onReply(reply(INVENTORY_SERVICE, ROLLBACK_PENDING));
+
+        assertThat(outcome.transition()).isSameAs(PREVIOUS);
+    }
+
+    @Test
+    void failedCompensationWhileCompensatingLaterStepFinishesToPrevious() {
+        var join = new ParallelJoin(stage, true);
+        assertThat(join.outstandingTopics()).containsExactly(PAYMENT_FAIL, INVENTORY_FAIL);
+
+        assertThat(join.onReply(reply(PAYMENT_SERVICE, ROLLBACK_PENDING)).isFinished()).isFalse();
+        assertThat(join.outstandingTopics()).containsExactly(INVENTORY_FAIL);
+
+        assertThat(join.onReply(reply(INVENTORY_SERVICE, FAIL)).transition()).isSameAs(PREVIOUS);
+    }
+
+    @Test
+    void ignoresReplyAfterCompensationFailed() {
+        var join = new ParallelJoin(stage, true);
+        join.onReply(reply(PAYMENT_SERVICE, ROLLBACK_PENDING));
+
+        var duplicated = join.onReply(reply(PAYMENT_SERVICE, ROLLBACK_PENDING));
+
+        assertThat(duplicated.isFinished()).isFalse();
+        assertThat(duplicated.topics()).isEmpty();
+        assertThat(join.outstandingTopics()).containsExactly(INVENTORY_FAIL);
+    }
+
+    private static Event reply(EEventSource source, ESagaStatus status) {
+        return Event.builder()
+                .id("event")
+                .transactionId("transaction")
+                .source(source)
+                .status(status)
+                .build();
+    }
+}
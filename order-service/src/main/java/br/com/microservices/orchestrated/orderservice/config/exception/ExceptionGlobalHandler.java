@@ -1,6 +1,7 @@
 package br.com.microservices.orchestrated.orderservice.config.exception;
 
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -18,5 +19,15 @@ public class ExceptionGlobalHandler {
                 .body(new ExceptionDetails(HttpStatus.BAD_REQUEST.value(), validationException.getMessage()));
     }
 
+    /** Fila de ingestão cheia: 503 com Retry-After para o cliente reenviar em seguida **/
+    @ExceptionHandler(OverloadException.class)
+    public ResponseEntity<?>handleOverloadException(OverloadException overloadException){
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ExceptionDetails(HttpStatus.SERVICE_UNAVAILABLE.value(), overloadException.getMessage()));
+    }
+
 
 }
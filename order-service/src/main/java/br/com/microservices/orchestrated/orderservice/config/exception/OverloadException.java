@@ -0,0 +1,15 @@
+package br.com.microservices.orchestrated.orderservice.config.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Requisição recusada porque o serviço está sem capacidade no momento; o cliente deve tentar novamente **/
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OverloadException extends RuntimeException{
+
+    public OverloadException(String message) {
+        super(message);
+    }
+
+}
@@ -1,18 +1,36 @@
 package br.com.microservices.orchestrated.orderservice.config.kafka;
 
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.utils.EventWireMapper;
+import br.com.microservices.orchestrated.sagacontracts.SagaBufferPool;
+import br.com.microservices.orchestrated.sagacontracts.SagaDeadLetters;
+import br.com.microservices.orchestrated.sagacontracts.SagaDeserializer;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventCodec;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
+import br.com.microservices.orchestrated.sagacontracts.SagaSender;
+import br.com.microservices.orchestrated.sagacontracts.SagaSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.CommonLoggingErrorHandler;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -54,6 +72,50 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset}")
     private String autoOffsetReset;
 
+    /**
+     * Quantidade máxima de notify-ending gravados juntos em uma escrita em lote no MongoDB.
+     * Motivo: Uma única escrita por lote, em vez de uma por saga finalizada, acompanha picos de sagas terminando sem acumular lag.
+     */
+    @Value("${saga.consumer.notify-batch.max-poll-records:500}")
+    private Integer notifyBatchMaxPollRecords;
+
+    /**
+     * Janela de espera do broker para juntar registros antes de responder o fetch, junto com notifyBatchMinBytes.
+     * Motivo: Com pouco tráfego o lote sai ao fim da janela; em pico sai assim que tiver bytes suficientes.
+     */
+    @Value("${saga.consumer.notify-batch.window-ms:200}")
+    private Integer notifyBatchWindowMs;
+
+    /** Bytes acumulados no broker que liberam o fetch antes do fim da janela **/
+    @Value("${saga.consumer.notify-batch.min-bytes:65536}")
+    private Integer notifyBatchMinBytes;
+
+    /**
+     * Intervalo máximo entre as novas tentativas de um lote cuja gravação falhou.
+     * Motivo: Falhas transitórias do banco se resolvem sozinhas; enquanto isso os offsets não são commitados
+     * e o lag cresce, mas nada se perde.
+     */
+    @Value("${saga.consumer.notify-batch.retry-max-interval-ms:10000}")
+    private Long notifyBatchRetryMaxIntervalMs;
+
+    /**
+     * Tempo máximo tentando gravar um mesmo lote antes de enviar os seus registros ao DLT.
+     * Motivo: Um lote que nunca grava (ex: um evento que sempre falha no upsert) não pode travar a partição.
+     */
+    @Value("${saga.consumer.notify-batch.retry-max-elapsed-ms:300000}")
+    private Long notifyBatchRetryMaxElapsedMs;
+
+    /**
+     * Quantidade de threads consumidoras do listener em lote, a mesma usada pela fábrica padrão do Spring Boot.
+     * Motivo: Cada thread recebe um subconjunto das partições, então só há ganho com partições suficientes.
+     */
+    @Value("${spring.kafka.listener.concurrency:1}")
+    private Integer listenerConcurrency;
+
+    /** Executa o consumidor em lote em threads virtuais, como o Spring Boot faz com a fábrica padrão **/
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     /** Captura Topico **/
     @Value("${spring.kafka.topic.start-saga}")
     private String startSagaTopic;
@@ -61,20 +123,116 @@ public class KafkaConfig {
     @Value("${spring.kafka.topic.notify-ending}")
     private String notifyEndingTopic;
 
-    /** Valores Fixos para partição e replicas para criação de tópicos **/
-    private static final Integer PARTITION_COUNT = 1;
+    /**
+     * Quantidade padrão de partições dos tópicos criados por esta aplicação.
+     * Motivo: Cada partição é consumida por uma única thread do grupo, então o número de partições limita quantas
+     * threads (spring.kafka.listener.concurrency) e instâncias conseguem consumir em paralelo.
+     * Uso Futuro: Cada tópico pode sobrescrever o padrão com spring.kafka.partitions.<topico>. Aumentar as partições de um
+     * tópico existente muda a partição das chaves, então é melhor fazer isso com os tópicos vazios.
+     */
+    @Value("${spring.kafka.partitions.default:1}")
+    private Integer defaultPartitionCount;
+
+    /**
+     * Formato usado para publicar os eventos: application/json ou application/vnd.saga.event.v1+binary.
+     * Motivo: A leitura segue o header content-type de cada mensagem, então os serviços podem trocar de formato um de cada vez.
+     */
+    @Value("${saga.wire.content-type:application/json}")
+    private String wireContentType;
+
+    /**
+     * Quantidade de buffers de escrita mantidos para reuso pelo SagaSerializer.
+     * Motivo: Cada evento publicado é codificado em um buffer emprestado do pool, em vez de alocar um novo por mensagem.
+     */
+    @Value("${saga.wire.buffer-pool-size:64}")
+    private Integer bufferPoolSize;
+
+    /**
+     * Quantidade máxima de envios aguardando confirmação do broker antes de bloquear quem publica.
+     * Motivo: Aplica backpressure quando o broker fica lento, em vez de acumular registros em memória sem limite.
+     */
+    @Value("${spring.kafka.producer.max-in-flight:1000}")
+    private Integer maxInFlight;
+
+    /** Valor fixo de replicas para criação de tópicos **/
     private static final Integer REPLICA_COUNT = 1;
 
+    /** Usado para ler a quantidade de partições configurada para cada tópico **/
+    private final Environment environment;
+
+    // ------------------- FORMATO DAS MENSAGENS ------------------- //
+
+    /**
+     * Codificação do Event no corpo das mensagens (saga-contracts), usada pelo serializer e pelo deserializer.
+     * Motivo: O evento é escrito direto em um buffer reaproveitado, em JSON ou binário, sem passar por uma String.
+     * A leitura escolhe o formato pelo header content-type de cada registro; mensagens sem o header são JSON.
+     */
+    @Bean
+    public SagaEventFormat<Event> sagaEventFormat(ObjectMapper objectMapper) {
+        return new SagaEventFormat<>(objectMapper, Event.class, new SagaEventCodec<>(EventWireMapper.INSTANCE),
+                new SagaBufferPool(bufferPoolSize), wireContentType);
+    }
+
     // ------------------- CONFIGURAÇÕES DO CONSUMER ------------------- //
 
     /**
      * Cria a "fábrica" de consumidores. O Spring Kafka usará esta fábrica para criar instâncias de consumidores
      * que escutarão as mensagens nos tópicos.
      * Motivo: Abstrai a criação manual de consumidores, delegando essa responsabilidade ao framework.
+     * O ErrorHandlingDeserializer transforma um corpo que não pode ser lido em erro do próprio registro,
+     * tratado pelo DeadLetterConfig, em vez de falhar o poll e travar a partição.
+     */
+    @Bean
+    public ConsumerFactory<String, Event> consumerFactory(SagaEventFormat<Event> sagaEventFormat) {
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), null,
+                new ErrorHandlingDeserializer<>(new SagaDeserializer<>(sagaEventFormat)));
+    }
+
+    /**
+     * Fábrica dos listeners que apenas repassam as atualizações das sagas aos assinantes do /api/event/stream.
+     * Motivo: Cada instância lê os tópicos em um grupo próprio, então um registro com erro é apenas registrado no log,
+     * sem retentativas que atrasariam as atualizações e sem repetir no DLT o que o grupo principal já enviou.
      */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
-        return new DefaultKafkaConsumerFactory<>(consumerProps());
+    public ConcurrentKafkaListenerContainerFactory<String, Event> streamKafkaListenerContainerFactory(
+            ConsumerFactory<String, Event> consumerFactory) {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, Event>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setCommonErrorHandler(new CommonLoggingErrorHandler());
+        return factory;
+    }
+
+    /**
+     * Fábrica do listener em lote do notify-ending (group commit).
+     * Motivo: Cada invocação recebe os registros de um poll, gravados com uma única escrita em lote, e com AckMode.BATCH
+     * os offsets só são commitados depois que o listener retorna, ou seja, depois da gravação. Se a aplicação cair antes,
+     * o lote é entregue de novo. O corpo chega em bytes e é decodificado no listener, que aponta um registro ilegível
+     * com BatchListenerFailedException: o error handler o envia uma única vez ao DLT, sem retentativas, e o restante do lote
+     * segue. Uma gravação que continua falhando é retentada com backoff por até notifyBatchRetryMaxElapsedMs, e então
+     * os registros do lote vão para o DLT.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> notifyBatchKafkaListenerContainerFactory(
+            ConsumerRecordRecoverer deadLetterRecoverer) {
+        var props = consumerProps();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, notifyBatchMaxPollRecords); // Limita o tamanho de cada lote.
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, notifyBatchWindowMs); // Janela para juntar registros no broker.
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, notifyBatchMinBytes); // Libera o fetch antes da janela em pico.
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, byte[]>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer()));
+        factory.setConcurrency(listenerConcurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        var backOff = new ExponentialBackOff(100, 2);
+        backOff.setMaxInterval(notifyBatchRetryMaxIntervalMs);
+        backOff.setMaxElapsedTime(notifyBatchRetryMaxElapsedMs);
+        factory.setCommonErrorHandler(SagaDeadLetters.errorHandler(deadLetterRecoverer, backOff));
+        if (virtualThreads) {
+            var executor = new SimpleAsyncTaskExecutor("notify-batch-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+        return factory;
     }
 
     /**
@@ -86,7 +244,6 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer); // Endereço do servidor.
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId); // Define a qual "time" de consumidores esta instância pertence.
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class); // (Desserializador da Chave) Kafka armazena tudo em bytes. Isso ensina o consumidor a "traduzir" a chave da mensagem de bytes de volta para uma String Java.
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class); // (Desserializador do Valor) O mesmo que o anterior, mas para o corpo da mensagem.
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset); // Define a estratégia de leitura inicial do tópico.
 
         return props;
@@ -99,8 +256,8 @@ public class KafkaConfig {
      * Motivo: Padroniza a criação de produtores na aplicação.
      */
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerProps());
+    public ProducerFactory<String, Event> producerFactory(SagaEventFormat<Event> sagaEventFormat) {
+        return new DefaultKafkaProducerFactory<>(producerProps(), null, new SagaSerializer<>(sagaEventFormat));
     }
 
     /**
@@ -111,7 +268,7 @@ public class KafkaConfig {
         var props = new HashMap<String, Object>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer); // Endereço do servidor.
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // (Serializador da Chave) Ensina o produtor a "traduzir" a chave (String Java) para o formato de bytes que o Kafka entende.
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // (Serializador do Valor) O mesmo, mas para o corpo da mensagem.
+        props.putAll(SagaSender.ORDERED_DELIVERY); // Idempotência, acks=all e até 5 requisições por conexão: o produtor reenvia sem duplicar nem inverter a ordem por partição.
         return props;
     }
 
@@ -121,20 +278,35 @@ public class KafkaConfig {
      * Em vez de lidar com a complexidade do Producer nativo, você simplesmente chama `kafkaTemplate.send(...)`.
      */
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+    public KafkaTemplate<String, Event> kafkaTemplate(ProducerFactory<String, Event> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    /**
+     * Envio assíncrono usado pelos produtores da aplicação (saga-contracts).
+     * Motivo: Limita os envios sem confirmação a spring.kafka.producer.max-in-flight, bloqueando quem publica
+     * quando o broker fica lento, e devolve um future com o resultado final de cada envio.
+     */
+    @Bean
+    public SagaSender<Event> sagaSender(KafkaTemplate<String, Event> kafkaTemplate) {
+        return new SagaSender<>(kafkaTemplate, maxInFlight);
+    }
+
 
     /** Método para criação de tópicos utilizando nome, replica e partições**/
     private NewTopic buildTopic(String name){
         return TopicBuilder
                 .name(name)
                 .replicas(REPLICA_COUNT)
-                .partitions(PARTITION_COUNT)
+                .partitions(partitionsOf(name))
                 .build();
     }
 
+    /** Partições do tópico: spring.kafka.partitions.<topico> ou o padrão spring.kafka.partitions.default **/
+    private Integer partitionsOf(String name){
+        return environment.getProperty("spring.kafka.partitions.".concat(name), Integer.class, defaultPartitionCount);
+    }
+
     /** Configuração para iniciar o topico start-saga automaticamente durante a inicialização da aplicação **/
     @Bean
     public NewTopic startSagaTopic(){
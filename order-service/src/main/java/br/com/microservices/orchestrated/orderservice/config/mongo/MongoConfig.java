@@ -0,0 +1,38 @@
+package br.com.microservices.orchestrated.orderservice.config.mongo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuração do pool de conexões do MongoDB.
+ */
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Máximo de conexões abertas com o MongoDB.
+     * Motivo: Com threads virtuais (spring.threads.virtual.enabled) o Tomcat deixa de limitar quantas requisições
+     * chegam ao banco ao mesmo tempo, e o pool passa a ser esse limite. Deve ser dimensionado pela capacidade do
+     * MongoDB, e não pelo número de requisições concorrentes.
+     */
+    @Value("${spring.data.mongodb.pool.max-size:100}")
+    private Integer maxPoolSize;
+
+    /**
+     * Tempo máximo de espera por uma conexão livre.
+     * Motivo: O padrão do driver é de 2 minutos; com muitas threads virtuais esperando, é melhor falhar rápido.
+     */
+    @Value("${spring.data.mongodb.pool.max-wait-ms:120000}")
+    private Long maxWaitMs;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer() {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxPoolSize)
+                .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.microservices.orchestrated.orderservice.config.mongo;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.Order;
+import br.com.microservices.orchestrated.orderservice.core.document.Outbox;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Índices das collections do order-service, criados na inicialização (createIndex não faz nada se o índice já existe).
+ * Os índices são declarados aqui, e não com @Indexed/@CompoundIndex nos documents, porque Order e Event também são
+ * embutidos em outros documents, e as anotações criariam índices também nesses caminhos aninhados.
+ * O uso dos índices pelas consultas dos repositórios é verificado nos testes (RepositoryQueryPlanTest).
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void init(){
+        ensureIndexes();
+    }
+
+    private void ensureIndexes(){
+        var events = mongoTemplate.indexOps(Event.class);
+        // findTop1ByOrderIdOrderByCreatedAtDesc
+        events.ensureIndex(new Index().on("orderId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .named("orderId_createdAt"));
+        // findTop1ByTransactionIdOrderByCreatedAtDesc, appendHistory, finishAll e findAllByTransactionIdIn
+        events.ensureIndex(new Index().on("transactionId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .named("transactionId_createdAt"));
+        // findAllByOrderByCreatedAtDesc, findPage, streamAll e findArchivable (percorrido no sentido inverso)
+        events.ensureIndex(new Index().on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                .named("createdAt_id"));
+
+        // findByTransactionId
+        mongoTemplate.indexOps(Order.class)
+                .ensureIndex(new Index().on("transactionId", Sort.Direction.ASC).named("transactionId"));
+
+        // Entradas pendentes reservadas pelo OutboxRelay e limpeza das já enviadas
+        mongoTemplate.indexOps(Outbox.class)
+                .ensureIndex(new Index().on("sentAt", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC)
+                        .named("sentAt_createdAt"));
+        log.info("MongoDB indexes ensured for event, order and outbox collections");
+    }
+}
@@ -1,35 +1,78 @@
 package br.com.microservices.orchestrated.orderservice.core.consumer;
 
 
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
 import br.com.microservices.orchestrated.orderservice.core.service.EventService;
-import br.com.microservices.orchestrated.orderservice.core.utils.JsonUtil;
-import lombok.AllArgsConstructor;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
+import br.com.microservices.orchestrated.sagacontracts.SagaWire;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class EventConsumer {
 
-    private final JsonUtil jsonUtil;
-
     private final EventService eventService;
+    private final SagaEventFormat<Event> eventFormat;
 
     @Value("${spring.kafka.topic.notify-ending}")
     private String topic;
 
+    /**
+     * Recebe os notify-ending de um poll e grava todos com uma única escrita em lote (group commit).
+     * Em um registro ilegível os anteriores são gravados e o registro é apontado ao container (BatchListenerFailedException),
+     * que commita os offsets até ele, o envia uma única vez ao dead letter e entrega de novo os seguintes.
+     * Uma falha na gravação sai do listener, e o lote inteiro é entregue de novo sem que os offsets sejam commitados.
+     */
     @KafkaListener(
         groupId = "${spring.kafka.consumer.group-id}",
-        topics = "${spring.kafka.topic.notify-ending}"
+        topics = "${spring.kafka.topic.notify-ending}",
+        containerFactory = "notifyBatchKafkaListenerContainerFactory"
+    )
+    public void consumeNotifyEvents(List<ConsumerRecord<String, byte[]>> records){
+        var events = new ArrayList<Event>(records.size());
+        for (var index = 0; index < records.size(); index++){
+            var record = records.get(index);
+            Event event;
+            try {
+                event = eventFormat.decode(record.value(), SagaWire.contentType(record.headers()));
+            } catch (RuntimeException e) {
+                log.error("Error reading record from topic {} at offset {} with key {}", record.topic(), record.offset(), record.key(), e);
+                notifyEnding(events);
+                throw new BatchListenerFailedException("Unreadable ending notification record", e, index);
+            }
+            if (event != null){
+                events.add(event);
+            }
+        }
+        notifyEnding(events);
+    }
+
+    private void notifyEnding(List<Event> events){
+        log.info("Receiving {} ending notification events from {} topic", events.size(), topic);
+        eventService.notifyEnding(events);
+    }
+
+    /**
+     * Lê as respostas dos participantes em um grupo próprio, sem concorrer com o orquestrador,
+     * e os historicos que o próprio orquestrador publica a cada passo, apenas para guardar os historicos da saga
+     */
+    @KafkaListener(
+        groupId = "${spring.kafka.consumer.history-group-id}",
+        topics = {"${spring.kafka.topic.orchestrator}", "${spring.kafka.topic.saga-history}"}
     )
-    public void consumeNotifyEvent(String payload){
-        log.info("Receiving ending notification event {} from {} topic", payload, topic);
-        var event = jsonUtil.toEvent(payload);
-        eventService.notifyEnding(event);
+    public void consumeStepHistory(Event event){
+        log.info("Receiving step history of transaction {} from {}", event.getTransactionId(), event.getSource());
+        eventService.appendHistory(event);
     }
 
 
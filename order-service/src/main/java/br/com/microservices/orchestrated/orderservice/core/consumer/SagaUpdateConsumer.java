@@ -0,0 +1,41 @@
+package br.com.microservices.orchestrated.orderservice.core.consumer;
+
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.service.OrderReplyRegistry;
+import br.com.microservices.orchestrated.orderservice.core.service.SagaUpdateBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repassa as atualizações das sagas aos assinantes do /api/event/stream e responde os POST que aguardam o resultado.
+ * O grupo é próprio de cada instância (stream-group-id), então todas as instâncias recebem todos os registros
+ * e cada uma atende os seus assinantes, sem consultar o MongoDB.
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaUpdateConsumer {
+
+    private final SagaUpdateBroadcaster broadcaster;
+    private final OrderReplyRegistry replyRegistry;
+
+    @KafkaListener(
+        groupId = "${spring.kafka.consumer.stream-group-id}",
+        topics = "${spring.kafka.topic.notify-ending}",
+        containerFactory = "streamKafkaListenerContainerFactory"
+    )
+    public void consumeOutcome(Event event){
+        replyRegistry.complete(event);
+        broadcaster.publishOutcome(event);
+    }
+
+    @KafkaListener(
+        groupId = "${spring.kafka.consumer.stream-group-id}",
+        topics = "${spring.kafka.topic.orchestrator}",
+        containerFactory = "streamKafkaListenerContainerFactory"
+    )
+    public void consumeStep(Event event){
+        broadcaster.publishSteps(event);
+    }
+}
@@ -3,11 +3,18 @@ package br.com.microservices.orchestrated.orderservice.core.controller;
 
 import br.com.microservices.orchestrated.orderservice.core.document.Event;
 import br.com.microservices.orchestrated.orderservice.core.dto.EventFilters;
+import br.com.microservices.orchestrated.orderservice.core.dto.EventPage;
 import br.com.microservices.orchestrated.orderservice.core.service.EventService;
+import br.com.microservices.orchestrated.orderservice.core.service.SagaUpdateBroadcaster;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,6 +24,7 @@ import java.util.List;
 public class EventController {
 
     private final EventService eventService;
+    private final SagaUpdateBroadcaster broadcaster;
 
 
     /**
@@ -29,6 +37,18 @@ public class EventController {
         return eventService.findByFilters(filters);
     }
 
+    /**
+     * Controller para acompanhar as sagas por server-sent events, sem consultar o banco a cada atualização.
+     * Sem filtros recebe todas as sagas; com orderId ou transactionId, apenas a saga informada até o resultado final.
+     * @param filters
+     * @param steps também recebe os passos intermediários (evento "step"), além do resultado final ("outcome")
+     * @return
+     */
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(EventFilters filters, @RequestParam(defaultValue = "false") boolean steps){
+        return broadcaster.subscribe(filters, steps);
+    }
+
     /**
      * Controller para realizar findAll events
      * @return
@@ -38,5 +58,29 @@ public class EventController {
         return eventService.findAll();
     }
 
+    /**
+     * Controller para listar os events em páginas, do mais recente para o mais antigo
+     * @param cursor nextCursor da página anterior; vazio para a primeira
+     * @param limit quantidade de events da página
+     * @return
+     */
+    @GetMapping("page")
+    public EventPage findPage(@RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = "100") int limit){
+        return eventService.findPage(cursor, limit);
+    }
+
+    /**
+     * Controller para exportar todos os events em NDJSON, escritos conforme são lidos do banco
+     * @return
+     */
+    @GetMapping(value = "all/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAll(){
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(eventService::streamAll);
+    }
+
 
 }
@@ -2,13 +2,29 @@ package br.com.microservices.orchestrated.orderservice.core.controller;
 
 
 import br.com.microservices.orchestrated.orderservice.core.document.Order;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderAccepted;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderIngestionStats;
 import br.com.microservices.orchestrated.orderservice.core.dto.OrderRequest;
+import br.com.microservices.orchestrated.orderservice.core.service.ClaimCheckService;
+import br.com.microservices.orchestrated.orderservice.core.service.OrderBatchService;
+import br.com.microservices.orchestrated.orderservice.core.service.OrderIngestionService;
+import br.com.microservices.orchestrated.orderservice.core.service.OrderReplyRegistry;
 import br.com.microservices.orchestrated.orderservice.core.service.OrderService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
 
 @RestController
 @AllArgsConstructor
@@ -16,6 +32,10 @@ import org.springframework.web.bind.annotation.RestController;
 public class OrderController {
 
     private final OrderService service;
+    private final ClaimCheckService claimCheckService;
+    private final OrderIngestionService ingestionService;
+    private final OrderReplyRegistry replyRegistry;
+    private final OrderBatchService batchService;
 
     /**
      * Controller para criar orders
@@ -27,4 +47,70 @@ public class OrderController {
         return service.createOrder(request);
     }
 
+    /**
+     * Controller para consultar uma order pelo transactionId
+     * @param transactionId
+     * @return
+     */
+    @GetMapping
+    public Order findByTransactionId(@RequestParam String transactionId){
+        return service.findByTransactionId(transactionId);
+    }
+
+    /**
+     * Controller para criar orders e aguardar o fim da saga na mesma requisição (?wait=true), sem ocupar thread.
+     * Responde 200 com o resultado final, ou 202 com os ids se a saga não terminar dentro do timeout.
+     * @param request
+     * @return
+     */
+    @PostMapping(params = "wait=true")
+    public DeferredResult<ResponseEntity<?>> createOrderAndWait(@RequestBody OrderRequest request){
+        return replyRegistry.createAndWait(request);
+    }
+
+    /**
+     * Controller para criar orders em lote a partir de um array JSON, lido e gravado em blocos.
+     * A resposta é NDJSON, com uma linha por pedido (index e ids gerados, ou erro), escrita conforme cada bloco é gravado.
+     * @param request
+     * @param response
+     */
+    @PostMapping("/batch")
+    public void createOrders(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (var parser = batchService.open(request.getInputStream())) {
+            response.setContentType("application/x-ndjson");
+            batchService.ingest(parser, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Controller para criar orders de forma assíncrona: valida, coloca na fila de gravação e responde 202
+     * com os ids gerados. Com a fila cheia responde 503 com Retry-After.
+     * @param request
+     * @return
+     */
+    @PostMapping("/async")
+    public ResponseEntity<OrderAccepted> createOrderAsync(@RequestBody OrderRequest request){
+        return ResponseEntity.accepted().body(ingestionService.submit(request));
+    }
+
+    /**
+     * Controller para consultar a profundidade da fila de ingestão e os pedidos recusados
+     * @return
+     */
+    @GetMapping("/async/stats")
+    public OrderIngestionStats findIngestionStats(){
+        return ingestionService.stats();
+    }
+
+    /**
+     * Controller para os participantes buscarem os itens de um pedido enviado por claim-check.
+     * Os bytes são devolvidos sem conversão, pois o participante confere o hash sobre eles.
+     * @param orderId
+     * @return
+     */
+    @GetMapping(value = "/{orderId}/products", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] findProducts(@PathVariable String orderId){
+        return claimCheckService.findProductsContent(orderId);
+    }
+
 }
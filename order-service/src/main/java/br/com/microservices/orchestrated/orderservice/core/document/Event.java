@@ -19,10 +19,13 @@ public class Event {
     @Id
     private String id;
     private String transactionId;
+    private String sagaType;
     private String orderId;
     private Order payload;
     private String source;
     private String status;
     private List<History> eventHistory;
     private LocalDateTime createdAt;
+    private int historySequence; //Última sequência usada no histórico, para numerar as entradas sem receber as anteriores
+    private String payloadHash; //Hash dos itens quando o pedido segue por claim-check, sem a lista de produtos no payload
 }
@@ -16,4 +16,5 @@ public class History {
     private String status;
     private String message;
     private LocalDateTime createdAt;
+    private int sequence; //Posição da entrada na linha do tempo da saga
 }
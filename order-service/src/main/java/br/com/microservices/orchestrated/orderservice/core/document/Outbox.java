@@ -0,0 +1,31 @@
+package br.com.microservices.orchestrated.orderservice.core.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada do outbox: o evento inicial da saga, com o pedido completo no payload, gravado em uma única escrita
+ * no POST. O OutboxRelay grava o pedido e o evento nas respectivas collections e publica no start-saga.
+ * Cada instância reserva as entradas que vai publicar (claimedBy/claimedUntil), então um evento não é publicado
+ * por duas instâncias ao mesmo tempo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "outbox")//Especificando nome da collection
+public class Outbox {
+    @Id
+    private String id;
+    private Event event;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt; //Nulo enquanto o evento não foi confirmado pelo broker
+    private String claimedBy; //Instância do order-service que reservou a entrada para publicar
+    private LocalDateTime claimedUntil; //Fim da reserva; depois dele outra instância pode reservar a entrada
+}
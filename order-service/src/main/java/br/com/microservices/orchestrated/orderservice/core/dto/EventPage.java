@@ -0,0 +1,18 @@
+package br.com.microservices.orchestrated.orderservice.core.dto;
+
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Página do /api/event/page: nextCursor é enviado no parâmetro cursor para buscar a próxima, e é nulo na última **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPage {
+    private List<Event> events;
+    private String nextCursor;
+}
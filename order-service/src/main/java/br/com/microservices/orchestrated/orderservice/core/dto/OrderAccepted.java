@@ -0,0 +1,15 @@
+package br.com.microservices.orchestrated.orderservice.core.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Resposta do POST assíncrono: identificadores para acompanhar o pedido pelo /api/event **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderAccepted {
+    private String orderId;
+    private String transactionId;
+}
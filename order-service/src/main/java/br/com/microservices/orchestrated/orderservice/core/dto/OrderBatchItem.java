@@ -0,0 +1,22 @@
+package br.com.microservices.orchestrated.orderservice.core.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha da resposta do POST /api/order/batch: a posição do pedido no array enviado e os ids gerados,
+ * ou a mensagem de erro quando o item foi recusado. Sem index, o erro é do arquivo e a leitura parou ali.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderBatchItem {
+    private Integer index;
+    private String orderId;
+    private String transactionId;
+    private String error;
+}
@@ -0,0 +1,21 @@
+package br.com.microservices.orchestrated.orderservice.core.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Situação da fila de ingestão assíncrona de pedidos desde a subida da aplicação **/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderIngestionStats {
+    private int queueDepth;
+    private int capacity;
+    private long accepted;
+    private long rejected;
+    private long written;
+    private long failed;
+}
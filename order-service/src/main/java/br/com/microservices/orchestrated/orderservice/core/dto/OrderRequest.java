@@ -13,4 +13,6 @@ import java.util.List;
 public class OrderRequest {
 
     private List<OrderProducts> products;
+    /** Tipo de saga do pedido, vazio para o fluxo padrão do orquestrador **/
+    private String sagaType;
 }
@@ -0,0 +1,27 @@
+package br.com.microservices.orchestrated.orderservice.core.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Atualização enviada aos assinantes do /api/event/stream: um passo da saga ou, com finished=true, o resultado final.
+ * Carrega apenas o resumo do passo, sem o payload do pedido.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaUpdate {
+    private String orderId;
+    private String transactionId;
+    private String source;
+    private String status;
+    private String message;
+    private boolean finished;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,157 @@
+package br.com.microservices.orchestrated.orderservice.core.producer;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.Order;
+import br.com.microservices.orchestrated.orderservice.core.document.Outbox;
+import br.com.microservices.orchestrated.orderservice.core.repository.OutboxRepository;
+import br.com.microservices.orchestrated.orderservice.core.service.ClaimCheckService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static br.com.microservices.orchestrated.orderservice.core.utils.MongoBulkInserts.insertIgnoringDuplicates;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Publica as entradas pendentes do outbox em lotes, fora da thread HTTP.
+ * Para cada lote: grava os pedidos e os eventos com uma escrita em bulk por collection, publica todos os eventos
+ * sem aguardar um a um, e marca como enviadas, em uma única atualização, apenas as entradas confirmadas pelo broker.
+ * As não confirmadas ficam pendentes para o próximo ciclo, então a entrega é at-least-once: os participantes
+ * já descartam transações repetidas.
+ * Com várias instâncias, cada lote é reservado antes da publicação: uma única atualização grava claimedBy e
+ * claimedUntil apenas nas entradas sem reserva em vigor, e a instância publica só as que ficaram com o seu id.
+ * A reserva de uma instância que caiu expira em saga.outbox.lease-ms e as entradas voltam a ser reservadas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ClaimCheckService claimCheckService;
+    private final SagaProducer producer;
+
+    /** Máximo de entradas publicadas por lote **/
+    @Value("${saga.outbox.batch-size:200}")
+    private int batchSize;
+
+    /** Tempo máximo aguardando a confirmação do lote; o que não for confirmado é reenviado no próximo ciclo **/
+    @Value("${saga.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Duração da reserva de um lote; deve ser maior que send-timeout-ms, senão outra instância pode reservar
+     * e publicar de novo um lote que ainda aguarda confirmação
+     */
+    @Value("${saga.outbox.lease-ms:30000}")
+    private long leaseMs;
+
+    /** Identifica as reservas desta instância **/
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /** Entradas enviadas são mantidas por este período para consulta e depois removidas **/
+    @Value("${saga.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    /** Publica lotes enquanto houver lotes cheios confirmados, e aguarda o próximo ciclo caso contrário **/
+    @Scheduled(fixedDelayString = "${saga.outbox.poll-interval-ms:100}")
+    public void relay(){
+        int sent;
+        do {
+            var pending = claim();
+            if (pending.isEmpty()){
+                return;
+            }
+            sent = relayBatch(pending);
+        } while (sent == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${saga.outbox.purge-interval-ms:3600000}")
+    public void purgeSent(){
+        var limit = LocalDateTime.now().minusHours(retentionHours);
+        var removed = mongoTemplate.remove(Query.query(where("sentAt").lt(limit)), Outbox.class).getDeletedCount();
+        if (removed > 0){
+            log.info("Removed {} outbox entries sent before {}", removed, limit);
+        }
+    }
+
+    /**
+     * Reserva as entradas pendentes mais antigas para esta instância. A atualização só altera as entradas que
+     * continuam sem reserva em vigor, então, com instâncias concorrentes, cada entrada fica com apenas uma delas.
+     * @return entradas reservadas nesta rodada, das mais antigas para as mais novas
+     */
+    private List<Outbox> claim(){
+        var now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        var candidates = outboxRepository.findClaimable(now, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()){
+            return List.of();
+        }
+        var ids = candidates.stream().map(Outbox::getId).toList();
+        var until = now.plus(leaseMs, ChronoUnit.MILLIS);
+        mongoTemplate.updateMulti(
+                Query.query(where("_id").in(ids).and("sentAt").isNull()
+                        .orOperator(where("claimedUntil").isNull(), where("claimedUntil").lt(now))),
+                new Update().set("claimedBy", instanceId).set("claimedUntil", until), Outbox.class);
+        return outboxRepository.findByIdInAndClaimedByAndClaimedUntilOrderByCreatedAtAsc(ids, instanceId, until);
+    }
+
+    private int relayBatch(List<Outbox> pending){
+        var events = pending.stream().map(Outbox::getEvent).toList();
+        /** Em um lote repetido (ex: queda após gravar e antes de marcar como enviado) os já gravados são mantidos **/
+        insertIgnoringDuplicates(mongoTemplate, events.stream().map(Event::getPayload).toList(), Order.class);
+        insertIgnoringDuplicates(mongoTemplate, events, Event.class);
+
+        var sends = new ArrayList<CompletableFuture<Void>>(pending.size());
+        for (var event : events){
+            /** Pedidos grandes seguem sem os produtos, que ficam disponíveis para os participantes **/
+            claimCheckService.apply(event);
+            sends.add(producer.sendEvent(event));
+        }
+        producer.flush();
+
+        var sentIds = new ArrayList<String>(pending.size());
+        var unsentIds = new ArrayList<String>();
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < sends.size(); i++){
+            try {
+                sends.get(i).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                sentIds.add(pending.get(i).getId());
+            } catch (ExecutionException | TimeoutException e) {
+                unsentIds.add(pending.get(i).getId());
+                log.warn("Outbox entry {} of transaction {} not confirmed, will be sent again: {}",
+                        pending.get(i).getId(), events.get(i).getTransactionId(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!sentIds.isEmpty()){
+            mongoTemplate.updateMulti(Query.query(where("_id").in(sentIds)),
+                    Update.update("sentAt", LocalDateTime.now()), Outbox.class);
+        }
+        /** Libera a reserva das não confirmadas, que voltam a ser reservadas no próximo ciclo **/
+        if (!unsentIds.isEmpty()){
+            mongoTemplate.updateMulti(Query.query(where("_id").in(unsentIds).and("claimedBy").is(instanceId)),
+                    new Update().unset("claimedBy").unset("claimedUntil"), Outbox.class);
+        }
+        log.info("Outbox relayed {} of {} pending events", sentIds.size(), pending.size());
+        return sentIds.size();
+    }
+}
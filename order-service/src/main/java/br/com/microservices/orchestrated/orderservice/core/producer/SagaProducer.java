@@ -1,33 +1,45 @@
 package br.com.microservices.orchestrated.orderservice.core.producer;
 
 import jakarta.validation.Valid;
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.sagacontracts.SagaHeaders;
+import br.com.microservices.orchestrated.sagacontracts.SagaSender;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 
 /** Classe criada para trabalhar com produtores**/
 @Slf4j//Anotação de logs
 @Component
 @RequiredArgsConstructor//Utilizado para instanciar apenas o que for necessario de instanciação
 public class SagaProducer {
-    /** Isso funciona por conta do KafkaConfig realizado**/
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    /** Envio assíncrono com janela limitada e callbacks de confirmação **/
+    private final SagaSender<Event> sender;
 
 
     /** Topico produtor **/
     @Value("${spring.kafka.topic.start-saga}")
     private String startSagaTopic;
 
-    /** Método para envio de evento **/
-    public void sendEvent(String payload){
-        try{
-            log.info("Sending event to topic {} with data {}", startSagaTopic, payload);
-            kafkaTemplate.send(startSagaTopic, payload);
-        } catch (Exception e) {
-            log.error("Error trying to send data to topic {} with data {}", startSagaTopic, payload, e);
-        }
+    /**
+     * Método para envio de evento, com o transactionId como chave (mantém os eventos da mesma saga
+     * na mesma partição), os dados de roteamento nos headers e o corpo no formato configurado
+     * @param event evento a ser enviado
+     * @return resultado final do envio
+     */
+    public CompletableFuture<Void> sendEvent(Event event){
+        log.info("Sending event to topic {} with data {}", startSagaTopic, event);
+        var headers = SagaHeaders.of(event.getId(), event.getTransactionId(), event.getOrderId(),
+                event.getSagaType(), event.getSource(), event.getStatus());
+        return sender.send(startSagaTopic, event.getTransactionId(), event, headers);
+    }
+
+    /** Envia imediatamente os registros acumulados no produtor **/
+    public void flush(){
+        sender.flush();
     }
 }
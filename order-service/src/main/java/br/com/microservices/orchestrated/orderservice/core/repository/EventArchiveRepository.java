@@ -0,0 +1,148 @@
+package br.com.microservices.orchestrated.orderservice.core.repository;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Arquivo das sagas finalizadas, fora do MongoDB: um diretório de segmentos imutáveis (EventSegment).
+ * Cada gravação cria um segmento novo com a próxima sequência, e as buscas percorrem os segmentos do mais novo
+ * para o mais antigo, então uma saga arquivada duas vezes (queda entre a gravação e a remoção no MongoDB)
+ * é lida da cópia mais recente. Apenas os rodapés dos segmentos ficam em memória, e nenhum arquivo fica aberto
+ * entre as buscas.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class EventArchiveRepository {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.archive.enabled:false}")
+    private boolean enabled;
+
+    /** Diretório dos segmentos; compartilhado entre as instâncias para que todas encontrem as sagas arquivadas **/
+    @Value("${order.archive.directory:./event-archive}")
+    private String directory;
+
+    /** Eventos por bloco comprimido: blocos menores leem menos por busca, e blocos maiores comprimem melhor **/
+    @Value("${order.archive.block-size:64}")
+    private int blockSize;
+
+    private final ConcurrentSkipListMap<Long, EventSegment> segments = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final Set<Long> unreadable = new HashSet<>();
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        root = Path.of(directory);
+        Files.createDirectories(root);
+        refresh();
+        log.info("Event archive opened at {} with {} segments and {} events", root.toAbsolutePath(), segments.size(),
+                segments.values().stream().mapToLong(EventSegment::count).sum());
+    }
+
+    /** Abre os segmentos que ainda não estão em memória, gravados por esta ou por outra instância **/
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try (var files = Files.list(root)) {
+            for (var file : files.toList()) {
+                var sequence = EventSegment.sequenceOf(file);
+                if (sequence < 0 || segments.containsKey(sequence) || unreadable.contains(sequence)) {
+                    continue;
+                }
+                try {
+                    segments.put(sequence, EventSegment.open(file, objectMapper));
+                } catch (IOException | RuntimeException e) {
+                    unreadable.add(sequence);
+                    log.error("Ignoring unreadable event archive segment {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error listing event archive directory {}: {}", root, e.getMessage());
+        }
+    }
+
+    /**
+     * Grava os eventos em um segmento novo; quando retorna, os eventos já estão em disco e visíveis nas buscas
+     * @param events sagas finalizadas
+     */
+    public synchronized void append(List<Event> events) throws IOException {
+        refresh();
+        var last = segments.isEmpty() ? 0L : segments.firstKey();
+        var sequence = unreadable.stream().mapToLong(Long::longValue).reduce(last, Math::max) + 1;
+        segments.put(sequence, EventSegment.write(root, sequence, events, blockSize, objectMapper));
+    }
+
+    /** Remove arquivos temporários de gravações interrompidas; chamado apenas pela instância que grava **/
+    public synchronized void removeIncompleteSegments() {
+        if (!enabled) {
+            return;
+        }
+        try (var files = Files.list(root)) {
+            for (var file : files.filter(EventSegment::isTemporary).toList()) {
+                Files.deleteIfExists(file);
+                log.warn("Removed incomplete event archive segment {}", file);
+            }
+        } catch (IOException e) {
+            log.error("Error removing incomplete event archive segments from {}: {}", root, e.getMessage());
+        }
+    }
+
+    public Optional<Event> findByOrderId(String orderId) {
+        for (var segment : segments.values()) {
+            var event = find(segment, () -> segment.findByOrderId(orderId));
+            if (event.isPresent()) {
+                return event;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Event> findByTransactionId(String transactionId) {
+        for (var segment : segments.values()) {
+            var event = find(segment, () -> segment.findByTransactionId(transactionId));
+            if (event.isPresent()) {
+                return event;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    private static Optional<Event> find(EventSegment segment, SegmentLookup lookup) {
+        try {
+            return lookup.find();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading event archive segment " + segment.file(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SegmentLookup {
+        Optional<Event> find() throws IOException;
+    }
+}
@@ -4,11 +4,11 @@ import br.com.microservices.orchestrated.orderservice.core.document.Event;
 import br.com.microservices.orchestrated.orderservice.core.document.Order;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends MongoRepository<Event, String> {
-
+public interface EventRepository extends MongoRepository<Event, String>, EventRepositoryCustom {
 
     /** Método para fazer uma query em todos eventos em ordem descrescente por createdAt **/
     List<Event> findAllByOrderByCreatedAtDesc();
@@ -19,4 +19,7 @@ public interface EventRepository extends MongoRepository<Event, String> {
     /** Encontre apenas um item de transactionId em ordem decrescente, ou seja, o ultimo criado **/
     Optional<Event> findTop1ByTransactionIdOrderByCreatedAtDesc(String transactionId);
 
+    /** Documentos de um lote de sagas, relidos depois do finishAll para o cache **/
+    List<Event> findAllByTransactionIdIn(Collection<String> transactionIds);
+
 }
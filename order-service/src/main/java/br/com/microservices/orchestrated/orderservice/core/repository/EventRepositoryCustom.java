@@ -0,0 +1,52 @@
+package br.com.microservices.orchestrated.orderservice.core.repository;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.History;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Atualizações parciais do evento da saga. Cada serviço envia apenas os históricos que adicionou,
+ * então a linha do tempo é montada no próprio documento, sem ler e regravar o evento inteiro.
+ */
+public interface EventRepositoryCustom {
+
+    /**
+     * Acrescenta históricos ao evento da transação, mantendo a lista ordenada pela sequência.
+     * Entradas já gravadas (mesma origem e sequência) são ignoradas, então a reentrega de uma mensagem
+     * não duplica a linha do tempo.
+     * @param transactionId transação do evento
+     * @param history históricos recebidos de um passo da saga
+     */
+    void appendHistory(String transactionId, List<History> history);
+
+    /**
+     * Grava o estado final de cada saga do lote e acrescenta os históricos do orquestrador,
+     * em uma única escrita em lote não ordenada. Cria o documento que ainda não existir.
+     * @param events eventos recebidos do notify-ending
+     */
+    void finishAll(List<Event> events);
+
+    /**
+     * Sagas finalizadas criadas antes da data informada, das mais antigas para as mais novas, para o arquivamento
+     * @param before createdAt limite (exclusivo)
+     * @param limit quantidade máxima de eventos
+     */
+    List<Event> findArchivable(LocalDateTime before, int limit);
+
+    /**
+     * Página de eventos em ordem decrescente de createdAt e _id, a partir do último item da página anterior
+     * @param createdAt createdAt do último item recebido, ou null para a primeira página
+     * @param id _id do último item recebido, desempate entre eventos com o mesmo createdAt
+     * @param limit quantidade máxima de eventos
+     */
+    List<Event> findPage(LocalDateTime createdAt, String id, int limit);
+
+    /**
+     * Todos os eventos na mesma ordem da paginação, lidos do cursor do MongoDB conforme são consumidos.
+     * O Stream mantém o cursor aberto e precisa ser fechado.
+     */
+    Stream<Event> streamAll();
+}
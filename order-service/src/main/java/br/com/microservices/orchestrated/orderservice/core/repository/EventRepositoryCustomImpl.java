@@ -0,0 +1,129 @@
+package br.com.microservices.orchestrated.orderservice.core.repository;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.History;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.util.CollectionUtils.isEmpty;
+
+@RequiredArgsConstructor
+class EventRepositoryCustomImpl implements EventRepositoryCustom {
+
+    /** Ordem da linha do tempo; ramos paralelos podem repetir a sequência e são desempatados pela data **/
+    private static final Sort HISTORY_ORDER = Sort.by("sequence", "createdAt");
+
+    /** Ordem da listagem: createdAt sozinho não é único, então o _id desempata e torna a posição da página estável **/
+    private static final Sort LISTING_ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    /** Ordem do arquivamento: o inverso da listagem, percorrendo o mesmo índice createdAt_id **/
+    private static final Sort ARCHIVE_ORDER = Sort.by(Sort.Direction.ASC, "createdAt", "id");
+
+    /** Documentos trazidos do servidor a cada ida ao cursor durante o streaming **/
+    private static final int STREAM_BATCH_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void appendHistory(String transactionId, List<History> history) {
+        if (isEmpty(history)) {
+            return;
+        }
+        var update = new Update();
+        pushHistory(update, history);
+        mongoTemplate.updateFirst(notYetAppended(transactionId, history), update, Event.class);
+    }
+
+    /**
+     * Evento da transação que ainda não tem nenhuma das entradas (mesma origem e sequência).
+     * Todas as entradas de uma mensagem entram na mesma atualização, então uma reentrega da mensagem
+     * não encontra o documento e não duplica a linha do tempo.
+     */
+    private static Query notYetAppended(String transactionId, List<History> history) {
+        var appended = history.stream()
+                .map(entry -> where("eventHistory").elemMatch(where("source").is(entry.getSource())
+                        .and("sequence").is(entry.getSequence())))
+                .toArray(Criteria[]::new);
+        return Query.query(where("transactionId").is(transactionId).norOperator(appended));
+    }
+
+    @Override
+    public void finishAll(List<Event> events) {
+        if (isEmpty(events)) {
+            return;
+        }
+        var bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class);
+        for (var event : events) {
+            bulk.upsert(byTransactionId(event.getTransactionId()), finishUpdate(event));
+        }
+        bulk.execute();
+    }
+
+    private static Update finishUpdate(Event event) {
+        var update = new Update()
+                .set("orderId", event.getOrderId())
+                .set("sagaType", event.getSagaType())
+                .set("source", event.getSource())
+                .set("status", event.getStatus())
+                .set("createdAt", event.getCreatedAt())
+                .max("historySequence", event.getHistorySequence());
+        setPayload(update, event);
+        if (!isEmpty(event.getEventHistory())) {
+            pushHistory(update, event.getEventHistory());
+        }
+        return update;
+    }
+
+    @Override
+    public List<Event> findPage(LocalDateTime createdAt, String id, int limit) {
+        var query = new Query().with(LISTING_ORDER).limit(limit);
+        if (createdAt != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    where("createdAt").lt(createdAt),
+                    where("createdAt").is(createdAt).and("id").lt(id)));
+        }
+        return mongoTemplate.find(query, Event.class);
+    }
+
+    @Override
+    public List<Event> findArchivable(LocalDateTime before, int limit) {
+        var query = Query.query(where("createdAt").lt(before).and("status").ne(null))
+                .with(ARCHIVE_ORDER)
+                .limit(limit);
+        return mongoTemplate.find(query, Event.class);
+    }
+
+    @Override
+    public Stream<Event> streamAll() {
+        var query = new Query().with(LISTING_ORDER).cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Event.class);
+    }
+
+    /** Pedidos por claim-check voltam sem os produtos: apenas os totais calculados são gravados **/
+    private static void setPayload(Update update, Event event) {
+        if (event.getPayloadHash() == null || event.getPayload() == null) {
+            update.set("payload", event.getPayload());
+            return;
+        }
+        update.set("payload.totalAmount", event.getPayload().getTotalAmount())
+                .set("payload.totalItems", event.getPayload().getTotalItems());
+    }
+
+    private static void pushHistory(Update update, List<History> history) {
+        update.push("eventHistory").sort(HISTORY_ORDER).each(history.toArray());
+    }
+
+    private static Query byTransactionId(String transactionId) {
+        return Query.query(where("transactionId").is(transactionId));
+    }
+}
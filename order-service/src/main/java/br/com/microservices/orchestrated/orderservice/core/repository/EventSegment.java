@@ -0,0 +1,400 @@
+package br.com.microservices.orchestrated.orderservice.core.repository;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Segmento do arquivo de eventos: um arquivo imutável com sagas finalizadas, gravado de uma vez e nunca alterado.
+ * Layout: MAGIC | blocos de eventos | blocos de transações | rodapé | posição do rodapé (long) | MAGIC
+ * Os eventos são ordenados por orderId e gravados em blocos gzip de NDJSON; os pares transactionId → orderId
+ * também são ordenados e comprimidos em blocos. O rodapé (JSON gzip) guarda o índice esparso, com a primeira chave
+ * e a posição de cada bloco, e um filtro de Bloom por chave, que evita ler blocos de segmentos que não têm a saga.
+ * Apenas o rodapé fica em memória; o arquivo não fica aberto entre as buscas, então a quantidade de descritores
+ * não cresce com a de segmentos. Uma busca que passa pelo filtro abre o arquivo e descomprime um único bloco
+ * (dois para transactionId), lido com leitura posicional.
+ */
+final class EventSegment {
+
+    private static final int MAGIC = 0x45565347;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final String PREFIX = "events-";
+    private static final String EXTENSION = ".seg";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final char TRANSACTION_SEPARATOR = '\t';
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final int count;
+    private final TreeMap<String, Block> orderIndex = new TreeMap<>();
+    private final TreeMap<String, Block> transactionIndex = new TreeMap<>();
+    private final BloomFilter orderFilter;
+    private final BloomFilter transactionFilter;
+
+    private EventSegment(Path file, ObjectMapper objectMapper, Footer footer) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.count = footer.count();
+        footer.orderBlocks().forEach(block -> orderIndex.put(block.firstKey(), block));
+        footer.transactionBlocks().forEach(block -> transactionIndex.put(block.firstKey(), block));
+        this.orderFilter = new BloomFilter(footer.filterBits(), footer.orderFilter());
+        this.transactionFilter = new BloomFilter(footer.filterBits(), footer.transactionFilter());
+    }
+
+    /** Posição do índice esparso: primeira chave do bloco, início no arquivo e tamanho comprimido **/
+    record Block(String firstKey, long offset, int length) {
+    }
+
+    record Footer(int count, int filterBits, byte[] orderFilter, byte[] transactionFilter,
+                  List<Block> orderBlocks, List<Block> transactionBlocks) {
+    }
+
+    /**
+     * Grava os eventos em um arquivo temporário, força a escrita em disco e só então renomeia para o nome final,
+     * então um segmento visível está sempre completo. Falha se o segmento com essa sequência já existir.
+     * @param blockSize eventos por bloco; eventos com o mesmo orderId nunca são separados em blocos diferentes
+     */
+    static EventSegment write(Path directory, long sequence, List<Event> events, int blockSize,
+                              ObjectMapper objectMapper) throws IOException {
+        var byOrderId = events.stream().sorted(Comparator.comparing((Event event) -> key(event.getOrderId()))).toList();
+        var byTransactionId = events.stream()
+                .map(event -> Map.entry(key(event.getTransactionId()), key(event.getOrderId())))
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        var filterBits = BloomFilter.bitsFor(events.size());
+        var orderFilter = new BloomFilter(filterBits, null);
+        var transactionFilter = new BloomFilter(filterBits, null);
+        byOrderId.forEach(event -> orderFilter.add(key(event.getOrderId())));
+        byTransactionId.forEach(entry -> transactionFilter.add(entry.getKey()));
+
+        var target = directory.resolve(fileName(sequence));
+        var temp = directory.resolve(fileName(sequence) + TEMP_EXTENSION);
+        if (Files.exists(target)) {
+            // O rename sobrescreveria o segmento existente no Linux, em vez de falhar
+            throw new FileAlreadyExistsException(target.toString());
+        }
+        try (var fileOutput = new FileOutputStream(temp.toFile());
+             var output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+            output.writeInt(MAGIC);
+            long position = Integer.BYTES;
+
+            var orderBlocks = new ArrayList<Block>();
+            for (var block : partition(byOrderId, blockSize, event -> key(event.getOrderId()))) {
+                var bytes = compressEvents(block, objectMapper);
+                output.write(bytes);
+                orderBlocks.add(new Block(key(block.get(0).getOrderId()), position, bytes.length));
+                position += bytes.length;
+            }
+            var transactionBlocks = new ArrayList<Block>();
+            for (var block : partition(byTransactionId, blockSize, Map.Entry::getKey)) {
+                var bytes = compressTransactions(block);
+                output.write(bytes);
+                transactionBlocks.add(new Block(block.get(0).getKey(), position, bytes.length));
+                position += bytes.length;
+            }
+
+            var footer = new Footer(events.size(), filterBits, orderFilter.toByteArray(), transactionFilter.toByteArray(),
+                    orderBlocks, transactionBlocks);
+            output.write(compress(objectMapper.writeValueAsBytes(footer)));
+            output.writeLong(position);
+            output.writeInt(MAGIC);
+            output.flush();
+            fileOutput.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return open(target, objectMapper);
+    }
+
+    /** Abre um segmento já gravado, lendo para a memória apenas o rodapé; o arquivo é fechado em seguida **/
+    static EventSegment open(Path file, ObjectMapper objectMapper) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size < Integer.BYTES + TRAILER_BYTES) {
+                throw new IOException("Segment " + file + " is truncated");
+            }
+            var trailer = read(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            var footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC || footerOffset < Integer.BYTES || footerOffset > size - TRAILER_BYTES) {
+                throw new IOException("Segment " + file + " has an invalid trailer");
+            }
+            var footerBytes = read(channel, footerOffset, (int) (size - TRAILER_BYTES - footerOffset));
+            try (var input = inflate(footerBytes)) {
+                return new EventSegment(file, objectMapper, objectMapper.readValue(input, Footer.class));
+            }
+        }
+    }
+
+    /** Sequência do segmento pelo nome do arquivo, ou -1 se o arquivo não for um segmento finalizado **/
+    static long sequenceOf(Path file) {
+        var name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(EXTENSION)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Arquivo temporário deixado por uma gravação interrompida **/
+    static boolean isTemporary(Path file) {
+        var name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(TEMP_EXTENSION);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /** Evento mais recente do pedido neste segmento **/
+    Optional<Event> findByOrderId(String orderId) throws IOException {
+        if (!orderFilter.mightContain(orderId)) {
+            return Optional.empty();
+        }
+        try (var channel = openChannel()) {
+            return findInOrderBlock(channel, orderId, event -> true);
+        }
+    }
+
+    /** Evento da transação: o bloco de transações indica o orderId, e o evento é lido do bloco desse pedido **/
+    Optional<Event> findByTransactionId(String transactionId) throws IOException {
+        if (!transactionFilter.mightContain(transactionId)) {
+            return Optional.empty();
+        }
+        var block = transactionIndex.floorEntry(transactionId);
+        if (block == null) {
+            return Optional.empty();
+        }
+        try (var channel = openChannel()) {
+            var orderId = findOrderId(channel, block.getValue(), transactionId);
+            if (orderId == null) {
+                return Optional.empty();
+            }
+            return findInOrderBlock(channel, orderId, event -> transactionId.equals(key(event.getTransactionId())));
+        }
+    }
+
+    /** orderId da transação no bloco de transações, ou null se a transação não estiver no segmento **/
+    private static String findOrderId(FileChannel channel, Block block, String transactionId) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(inflate(readBlock(channel, block)), StandardCharsets.UTF_8))) {
+            for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                var separator = line.indexOf(TRANSACTION_SEPARATOR);
+                var comparison = line.substring(0, separator).compareTo(transactionId);
+                if (comparison == 0) {
+                    return line.substring(separator + 1);
+                }
+                if (comparison > 0) {
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Optional<Event> findInOrderBlock(FileChannel channel, String orderId, Predicate<Event> filter) throws IOException {
+        var block = orderIndex.floorEntry(orderId);
+        if (block == null) {
+            return Optional.empty();
+        }
+        Event found = null;
+        try (var input = inflate(readBlock(channel, block.getValue()));
+             var events = objectMapper.readerFor(Event.class).<Event>readValues(input)) {
+            while (events.hasNext()) {
+                var event = events.next();
+                var comparison = key(event.getOrderId()).compareTo(orderId);
+                if (comparison > 0) {
+                    break;
+                }
+                if (comparison == 0 && filter.test(event)
+                        && (found == null || event.getCreatedAt().isAfter(found.getCreatedAt()))) {
+                    found = event;
+                }
+            }
+        }
+        return Optional.ofNullable(found);
+    }
+
+    /** Canal aberto apenas durante uma busca; o segmento é imutável, então não há o que sincronizar entre buscas **/
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    private static ByteBuffer readBlock(FileChannel channel, Block block) throws IOException {
+        return read(channel, block.offset(), block.length());
+    }
+
+    /** Leitura posicional: lê o trecho pedido sem depender da posição do canal **/
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static InputStream inflate(ByteBuffer buffer) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(buffer.array(), buffer.arrayOffset(), buffer.limit()));
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] compressEvents(List<Event> events, ObjectMapper objectMapper) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(buffer);
+             var generator = objectMapper.getFactory().createGenerator(gzip)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (var event : events) {
+                generator.writeObject(event);
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] compressTransactions(List<Map.Entry<String, String>> transactions) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var writer = new OutputStreamWriter(new GZIPOutputStream(buffer), StandardCharsets.UTF_8)) {
+            for (var transaction : transactions) {
+                writer.write(transaction.getKey());
+                writer.write(TRANSACTION_SEPARATOR);
+                writer.write(transaction.getValue());
+                writer.write('\n');
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /** Divide a lista ordenada em blocos de até blockSize itens, estendendo o bloco enquanto a chave se repete **/
+    private static <T> List<List<T>> partition(List<T> sorted, int blockSize, Function<T, String> key) {
+        var blocks = new ArrayList<List<T>>();
+        var current = new ArrayList<T>(blockSize);
+        for (var item : sorted) {
+            if (current.size() >= blockSize && !key.apply(current.get(current.size() - 1)).equals(key.apply(item))) {
+                blocks.add(current);
+                current = new ArrayList<>(blockSize);
+            }
+            current.add(item);
+        }
+        if (!current.isEmpty()) {
+            blocks.add(current);
+        }
+        return blocks;
+    }
+
+    /** Eventos sem orderId ou transactionId também são arquivados, sob a chave vazia **/
+    private static String key(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String fileName(long sequence) {
+        return PREFIX + String.format("%012d", sequence) + EXTENSION;
+    }
+
+    /**
+     * Filtro de Bloom das chaves do segmento: responde "talvez" ou "com certeza não".
+     * Com 10 bits por chave e 7 funções de hash, cerca de 1% das buscas por uma saga ausente ainda lê um bloco.
+     */
+    private static final class BloomFilter {
+
+        private static final int BITS_PER_KEY = 10;
+        private static final int HASHES = 7;
+
+        private final int size;
+        private final BitSet bits;
+
+        private BloomFilter(int size, byte[] bits) {
+            this.size = size;
+            this.bits = bits == null ? new BitSet(size) : BitSet.valueOf(bits);
+        }
+
+        private static int bitsFor(int keys) {
+            return Math.max(Long.SIZE, keys * BITS_PER_KEY);
+        }
+
+        private void add(String key) {
+            var hash = hash(key);
+            for (int i = 0; i < HASHES; i++) {
+                bits.set(index(hash, i));
+            }
+        }
+
+        private boolean mightContain(String key) {
+            var hash = hash(key);
+            for (int i = 0; i < HASHES; i++) {
+                if (!bits.get(index(hash, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private byte[] toByteArray() {
+            return bits.toByteArray();
+        }
+
+        /** Hash duplo: as funções são combinações das duas metades de um único hash de 64 bits **/
+        private int index(long hash, int i) {
+            return Math.floorMod((int) hash + i * (int) (hash >>> 32), size);
+        }
+
+        /** FNV-1a de 64 bits com a mistura final do MurmurHash3, para espalhar chaves parecidas **/
+        private static long hash(String key) {
+            var hash = 0xcbf29ce484222325L;
+            for (var value : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= value & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -3,5 +3,10 @@ package br.com.microservices.orchestrated.orderservice.core.repository;
 import br.com.microservices.orchestrated.orderservice.core.document.Order;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Optional;
+
 public interface OrderRepository extends MongoRepository<Order, String> {
+
+    /** Pedido pelo transactionId devolvido na criação, inclusive pela ingestão assíncrona e em lote **/
+    Optional<Order> findByTransactionId(String transactionId);
 }
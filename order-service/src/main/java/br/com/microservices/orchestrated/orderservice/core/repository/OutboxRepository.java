@@ -0,0 +1,25 @@
+package br.com.microservices.orchestrated.orderservice.core.repository;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Outbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends MongoRepository<Outbox, String> {
+
+    /**
+     * Ids das entradas ainda não publicadas e sem reserva em vigor, das mais antigas para as mais novas.
+     * A reserva em si é feita pelo OutboxRelay, que só publica o que conseguiu reservar.
+     */
+    @Query(value = "{ 'sentAt': null, '$or': [ { 'claimedUntil': null }, { 'claimedUntil': { '$lt': ?0 } } ] }",
+            fields = "{ '_id': 1 }", sort = "{ 'createdAt': 1 }")
+    List<Outbox> findClaimable(LocalDateTime now, Pageable pageable);
+
+    /** Entradas reservadas por uma instância em uma rodada (mesmo claimedUntil), das mais antigas para as mais novas **/
+    List<Outbox> findByIdInAndClaimedByAndClaimedUntilOrderByCreatedAtAsc(Collection<String> ids, String claimedBy,
+                                                                         LocalDateTime claimedUntil);
+}
@@ -0,0 +1,74 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.config.exception.ValidationException;
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.Order;
+import br.com.microservices.orchestrated.orderservice.core.repository.OrderRepository;
+import br.com.microservices.orchestrated.sagacontracts.SagaClaimCheck;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Claim-check dos pedidos grandes: a lista de produtos fica apenas no order-service e o evento segue
+ * com o restante do pedido e o hash dos itens. Os participantes buscam os itens em findProductsContent.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClaimCheckService {
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Quantidade de itens a partir da qual o pedido segue por claim-check. 0 mantém todos os pedidos inline.
+     * Motivo: Abaixo do limite, uma requisição HTTP por participante custa mais do que levar os itens na mensagem.
+     */
+    @Value("${saga.claim-check.min-lines:200}")
+    private int minLines;
+
+    /**
+     * Troca o payload do evento pela referência quando o pedido passa do limite de itens
+     * @param event evento já persistido com o pedido completo
+     */
+    public void apply(Event event){
+        var order = event.getPayload();
+        if (minLines <= 0 || order == null || order.getProducts() == null || order.getProducts().size() < minLines){
+            return;
+        }
+        event.setPayloadHash(SagaClaimCheck.hash(productsContent(order)));
+        event.setPayload(Order
+                .builder()
+                .id(order.getId())
+                .transactionId(order.getTransactionId())
+                .createdAt(order.getCreatedAt())
+                .totalAmount(order.getTotalAmount())
+                .totalItems(order.getTotalItems())
+                .build());
+        log.info("Order {} with {} products sent by claim-check", order.getId(), order.getProducts().size());
+    }
+
+    /**
+     * Itens do pedido nos mesmos bytes usados para calcular o hash
+     * @param orderId id do pedido
+     * @return lista de produtos em JSON
+     */
+    public byte[] findProductsContent(String orderId){
+        var order = orderRepository
+                .findById(orderId)
+                .orElseThrow(() -> new ValidationException("Order not found by ID."));
+        return productsContent(order);
+    }
+
+    private byte[] productsContent(Order order){
+        try {
+            return objectMapper.writeValueAsBytes(order.getProducts());
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Error serializing products of order ".concat(order.getId()));
+        }
+    }
+}
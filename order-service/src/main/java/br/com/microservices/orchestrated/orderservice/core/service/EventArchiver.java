@@ -0,0 +1,104 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.repository.EventArchiveRepository;
+import br.com.microservices.orchestrated.orderservice.core.repository.EventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Move as sagas finalizadas mais antigas que order.archive.older-than-hours da collection event para o arquivo
+ * em segmentos (EventArchiveRepository), mantendo no MongoDB apenas o conjunto em uso, com índices menores.
+ * Cada ciclo grava um segmento e só então remove os eventos do MongoDB; uma queda entre as duas etapas deixa
+ * a saga nos dois lugares, e o próximo ciclo a arquiva de novo sem perda.
+ * As instâncias que não gravam (order.archive.writer=false) apenas abrem os segmentos novos a cada ciclo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventArchiver {
+
+    private final EventRepository repository;
+    private final EventArchiveRepository archiveRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${order.archive.enabled:false}")
+    private boolean enabled;
+
+    /** Apenas uma instância deve gravar no diretório compartilhado **/
+    @Value("${order.archive.writer:true}")
+    private boolean writer;
+
+    /**
+     * Idade mínima de uma saga finalizada para sair do MongoDB; deve ser bem maior que o tempo de uma saga,
+     * já que um histórico que chegue depois do arquivamento não é acrescentado ao segmento
+     */
+    @Value("${order.archive.older-than-hours:168}")
+    private long olderThanHours;
+
+    /** Eventos por segmento, lidos do MongoDB e mantidos em memória durante a gravação de cada segmento **/
+    @Value("${order.archive.segment-size:10000}")
+    private int segmentSize;
+
+    /**
+     * Mínimo de eventos para gravar um segmento: as buscas percorrem os segmentos um a um, então um ciclo com
+     * poucas sagas finalizadas as deixa no MongoDB até acumular um segmento que compense
+     */
+    @Value("${order.archive.min-segment-events:1000}")
+    private int minSegmentEvents;
+
+    private Counter archived;
+
+    @PostConstruct
+    public void init(){
+        archived = Counter.builder("event.archive.archived").register(meterRegistry);
+        Gauge.builder("event.archive.segments", archiveRepository, EventArchiveRepository::segmentCount).register(meterRegistry);
+        if (enabled && writer){
+            archiveRepository.removeIncompleteSegments();
+        }
+    }
+
+    /**
+     * Grava segmentos enquanto houver segmentos cheios para arquivar, e aguarda o próximo ciclo caso contrário.
+     * Com menos de order.archive.min-segment-events sagas arquiváveis nenhum segmento é gravado no ciclo.
+     */
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:300000}")
+    public void archive(){
+        if (!enabled){
+            return;
+        }
+        archiveRepository.refresh();
+        if (!writer){
+            return;
+        }
+        var before = LocalDateTime.now().minusHours(olderThanHours);
+        int moved;
+        do {
+            var events = repository.findArchivable(before, segmentSize);
+            if (events.isEmpty() || events.size() < minSegmentEvents){
+                log.debug("Skipping event archive cycle with {} finished sagas, below the minimum of {}", events.size(), minSegmentEvents);
+                return;
+            }
+            try {
+                archiveRepository.append(events);
+            } catch (IOException e) {
+                log.error("Error writing event archive segment with {} events, keeping them in MongoDB: {}", events.size(), e.getMessage());
+                return;
+            }
+            repository.deleteAllById(events.stream().map(Event::getId).toList());
+            archived.increment(events.size());
+            moved = events.size();
+            log.info("Archived {} finished sagas created before {}", moved, before);
+        } while (moved == segmentSize);
+    }
+}
@@ -3,12 +3,23 @@ package br.com.microservices.orchestrated.orderservice.core.service;
 import br.com.microservices.orchestrated.orderservice.config.exception.ValidationException;
 import br.com.microservices.orchestrated.orderservice.core.document.Event;
 import br.com.microservices.orchestrated.orderservice.core.dto.EventFilters;
+import br.com.microservices.orchestrated.orderservice.core.dto.EventPage;
+import br.com.microservices.orchestrated.orderservice.core.repository.EventArchiveRepository;
 import br.com.microservices.orchestrated.orderservice.core.repository.EventRepository;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 
@@ -18,7 +29,16 @@ import static org.springframework.util.ObjectUtils.isEmpty;
 @Slf4j
 public class EventService {
 
+    /** Tamanho máximo de uma página do /api/event/page **/
+    private static final int MAX_PAGE_SIZE = 1000;
+    /** Eventos escritos no streaming entre cada flush da resposta **/
+    private static final int STREAM_FLUSH_INTERVAL = 100;
+    private static final String CURSOR_SEPARATOR = "|";
+
     private final EventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final SagaOutcomeCache outcomeCache;
+    private final EventArchiveRepository archiveRepository;
 
     /**
      *  Método responsavel por salvar event em collection do mongodb
@@ -32,20 +52,45 @@ public class EventService {
 
     /**
      * Método para receber de topico notify-ending do component EventConsumer,
-     * e persistir na o document na collection  com a notificação de finalização
+     * e persistir no document da collection o estado final com a notificação de finalização.
+     * Os eventos chegam em lote (um poll do consumidor) e são gravados com uma única escrita em lote no MongoDB.
+     * Cada evento traz apenas o historico de fim da saga; os dos participantes e os demais do orquestrador já foram
+     * acrescentados por appendHistory, então o document é atualizado em vez de substituído.
+     * Os documents completos são relidos com uma única consulta e vão para o cache consultado pelo findByFilters.
+     *
+     * @param events
+     */
+    public void notifyEnding(List<Event> events){
+        if (isEmpty(events)){
+            return;
+        }
+        // Uma reentrega pode trazer a mesma transação duas vezes no lote; fica a última, como na gravação individual
+        var byTransactionId = new LinkedHashMap<String, Event>();
+        var now = LocalDateTime.now();
+        for (var event : events){
+            event.setCreatedAt(now);
+            byTransactionId.put(event.getTransactionId(), event);
+        }
+        repository.finishAll(new ArrayList<>(byTransactionId.values()));
+        repository.findAllByTransactionIdIn(byTransactionId.keySet()).forEach(outcomeCache::putIfFinished);
+        log.info("{} orders with saga notified! TransactionIds: {}", byTransactionId.size(), byTransactionId.keySet());
+    }
+
+    /**
+     * Método para receber do topico orchestrator as respostas dos participantes, e do saga-history os historicos do orquestrador,
+     * e acrescentar os historicos de cada passo na linha do tempo da saga
      *
      * @param event
      */
-    public void notifyEnding(Event event){
-        event.setOrderId(event.getOrderId());
-        event.setCreatedAt(LocalDateTime.now());
-        save(event);
-        log.info("Order {} with saga notified! TransactionId: {}", event.getOrderId(), event.getTransactionId());
+    public void appendHistory(Event event){
+        repository.appendHistory(event.getTransactionId(), event.getEventHistory());
+        outcomeCache.evict(event.getOrderId(), event.getTransactionId());
     }
 
 
     /**
-     * Método para fazer uma query em todos eventos por ordem decrescente
+     * Método para fazer uma query em todos eventos por ordem decrescente.
+     * Carrega a collection inteira; para coleções grandes use findPage ou streamAll.
      *
      * @return List<Event>
      */
@@ -53,6 +98,73 @@ public class EventService {
         return repository.findAllByOrderByCreatedAtDesc();
     }
 
+    /**
+     * Método para listar os eventos por ordem decrescente, uma página por vez.
+     * A página seguinte começa depois do último evento da anterior (createdAt e _id), então o custo
+     * de cada página não cresce com a posição, ao contrário de um skip.
+     * O notifyEnding atualiza o createdAt, então uma saga que termina durante a leitura pode reaparecer no topo.
+     * Apenas os eventos do MongoDB são listados; as sagas já arquivadas são encontradas só pelo findByFilters.
+     *
+     * @param cursor nextCursor da página anterior, ou vazio para a primeira
+     * @param limit quantidade de eventos da página
+     * @return EventPage
+     */
+    public EventPage findPage(String cursor, int limit){
+        if (limit < 1 || limit > MAX_PAGE_SIZE){
+            throw new ValidationException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        LocalDateTime createdAt = null;
+        String id = null;
+        if (!isEmpty(cursor)){
+            var position = decodeCursor(cursor);
+            createdAt = LocalDateTime.parse(position[0]);
+            id = position[1];
+        }
+        var events = repository.findPage(createdAt, id, limit);
+        var nextCursor = events.size() < limit ? null : encodeCursor(events.get(events.size() - 1));
+        return new EventPage(events, nextCursor);
+    }
+
+    /**
+     * Método para escrever todos os eventos em NDJSON (um documento por linha) conforme são lidos do cursor,
+     * sem montar a lista em memória
+     *
+     * @param output corpo da resposta
+     */
+    public void streamAll(OutputStream output) throws IOException {
+        try (var events = repository.streamAll();
+             var generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            var written = 0;
+            for (var iterator = events.iterator(); iterator.hasNext(); ){
+                generator.writeObject(iterator.next());
+                if (++written % STREAM_FLUSH_INTERVAL == 0){
+                    generator.flush();
+                }
+            }
+            if (written > 0){
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private static String encodeCursor(Event event){
+        var position = event.getCreatedAt() + CURSOR_SEPARATOR + event.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor){
+        try {
+            var position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = position.indexOf(CURSOR_SEPARATOR);
+            var parts = new String[]{position.substring(0, separator), position.substring(separator + 1)};
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e){
+            throw new ValidationException("Invalid cursor.");
+        }
+    }
+
 
     /**
      * Método utilizado no controller event para filtrar os valores de order Id e transaction Id
@@ -69,26 +181,43 @@ public class EventService {
     }
 
     /**
-     * Método utilitario para filtrar por orderId
+     * Método utilitario para filtrar por orderId, primeiro no cache das sagas finalizadas
+     * e, se não estiver no MongoDB, no arquivo das sagas antigas
      * @param orderId
      * @return
      */
     private Event findByOrderId(String orderId){
-        return repository
-                .findTop1ByOrderIdOrderByCreatedAtDesc(orderId)
-                .orElseThrow(() -> new ValidationException("Event not found by orderID."));
+        return outcomeCache
+                .findByOrderId(orderId)
+                .orElseGet(() -> cacheIfFinished(repository
+                        .findTop1ByOrderIdOrderByCreatedAtDesc(orderId)
+                        .or(() -> archiveRepository.findByOrderId(orderId))
+                        .orElseThrow(() -> new ValidationException("Event not found by orderID."))));
     }
 
     /**
-     * Método utilitario para filtrar por transactionId
+     * Método utilitario para filtrar por transactionId, com a mesma ordem de busca do orderId
      * @param transactionId
      * @return
      */
     private Event findByTransactionId(String transactionId){
-        return repository
-                .findTop1ByTransactionIdOrderByCreatedAtDesc(transactionId)
-                .orElseThrow(() -> new ValidationException("Event not found by TransactionID."));
+        return outcomeCache
+                .findByTransactionId(transactionId)
+                .orElseGet(() -> cacheIfFinished(repository
+                        .findTop1ByTransactionIdOrderByCreatedAtDesc(transactionId)
+                        .or(() -> archiveRepository.findByTransactionId(transactionId))
+                        .orElseThrow(() -> new ValidationException("Event not found by TransactionID."))));
+
+    }
 
+    /**
+     * Sagas finalizadas lidas do banco também vão para o cache, como após um restart ou uma remoção do cache
+     * @param event
+     * @return
+     */
+    private Event cacheIfFinished(Event event){
+        outcomeCache.putIfFinished(event);
+        return event;
     }
 
     /**
@@ -0,0 +1,137 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.config.exception.ValidationException;
+import br.com.microservices.orchestrated.orderservice.core.document.Outbox;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderBatchItem;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingestão de arquivos de pedidos pelo POST /api/order/batch.
+ * O array é lido item a item do corpo da requisição e gravado no outbox em blocos (uma escrita por bloco),
+ * e a resposta é escrita em NDJSON conforme cada bloco é gravado, então nem o arquivo nem a resposta ficam
+ * inteiros em memória. O OutboxRelay grava pedidos e eventos com insertMany não ordenado e publica no
+ * start-saga em lotes do producer, como nos demais pedidos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderBatchService {
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    /** Pedidos gravados no outbox por escrita, e também respondidos a cada flush **/
+    @Value("${order.batch.chunk-size:500}")
+    private int chunkSize;
+
+    /** Pedidos aceitos por requisição; os seguintes são recusados e a leitura para **/
+    @Value("${order.batch.max-items:100000}")
+    private int maxItems;
+
+    /**
+     * Abre a leitura do corpo e confere que ele é um array, antes de qualquer escrita na resposta
+     * @param input corpo da requisição: um array JSON de OrderRequest
+     */
+    public JsonParser open(InputStream input) throws IOException {
+        var parser = objectMapper.getFactory().createParser(input);
+        try {
+            if (parser.nextToken() == JsonToken.START_ARRAY){
+                return parser;
+            }
+        } catch (JsonProcessingException e) {
+            log.debug("Invalid order batch body: {}", e.getMessage());
+        }
+        parser.close();
+        throw new ValidationException("Request body must be a JSON array of orders.");
+    }
+
+    /**
+     * @param parser leitura aberta por open
+     * @param output corpo da resposta: um OrderBatchItem por linha, na ordem do array
+     */
+    public void ingest(JsonParser parser, OutputStream output) throws IOException {
+        try (var generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            read(parser, generator);
+            generator.writeRaw('\n');
+        }
+    }
+
+    /** Um erro de sintaxe no arquivo encerra a leitura; os blocos anteriores já foram gravados e respondidos **/
+    private void read(JsonParser parser, JsonGenerator generator) throws IOException {
+        var chunk = new Chunk();
+        var index = 0;
+        try {
+            for (var token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()){
+                if (token == null){
+                    throw new ValidationException("Unexpected end of the orders array.");
+                }
+                if (index == maxItems){
+                    chunk.results.add(new OrderBatchItem(index, null, null, "Batch limit of " + maxItems + " orders exceeded."));
+                    break;
+                }
+                chunk.add(index++, parser);
+                if (chunk.results.size() == chunkSize){
+                    chunk.flush(generator);
+                }
+            }
+        } catch (JsonProcessingException | ValidationException e) {
+            chunk.flush(generator);
+            log.warn("Order batch stopped after {} items: {}", index, e.getMessage());
+            chunk.results.add(new OrderBatchItem(null, null, null, e.getMessage()));
+        }
+        chunk.flush(generator);
+    }
+
+    /** Bloco de pedidos ainda não gravados, com as linhas de resposta na ordem do array **/
+    private final class Chunk {
+
+        private final List<Outbox> entries = new ArrayList<>(chunkSize);
+        private final List<OrderBatchItem> results = new ArrayList<>(chunkSize);
+
+        /** Um item inválido é respondido com erro sem interromper o restante do arquivo **/
+        private void add(int index, JsonParser parser) throws IOException {
+            JsonNode node = parser.readValueAsTree();
+            try {
+                var request = objectMapper.treeToValue(node, OrderRequest.class);
+                orderService.validateRequest(request);
+                var entry = orderService.createOutboxEntry(request);
+                var order = entry.getEvent().getPayload();
+                entries.add(entry);
+                results.add(new OrderBatchItem(index, order.getId(), order.getTransactionId(), null));
+            } catch (JsonProcessingException | ValidationException | IllegalArgumentException e) {
+                results.add(new OrderBatchItem(index, null, null, e.getMessage()));
+            }
+        }
+
+        /** Os ids só são respondidos depois que o bloco foi gravado **/
+        private void flush(JsonGenerator generator) throws IOException {
+            if (!entries.isEmpty()){
+                orderService.saveAll(entries);
+            }
+            for (var result : results){
+                generator.writeObject(result);
+            }
+            generator.flush();
+            entries.clear();
+            results.clear();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.config.exception.OverloadException;
+import br.com.microservices.orchestrated.orderservice.core.document.Outbox;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderAccepted;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderIngestionStats;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingestão assíncrona de pedidos: o POST valida, gera os ids e coloca a entrada do outbox em uma fila limitada,
+ * respondendo sem esperar o banco. Workers esvaziam a fila em lotes, com uma única escrita por lote no outbox,
+ * e o OutboxRelay publica no Kafka. Com a fila cheia o pedido é recusado na hora (OverloadException),
+ * em vez de segurar a thread do Tomcat ou acumular memória sem limite.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderIngestionService {
+
+    /** Tentativas de gravação de um lote antes de descartá-lo; cada tentativa grava apenas o que faltou na anterior **/
+    private static final int WRITE_ATTEMPTS = 3;
+    private static final long WRITE_RETRY_BACKOFF_MS = 200;
+
+    private final OrderService orderService;
+    private final MeterRegistry meterRegistry;
+
+    /** Pedidos aceitos aguardando gravação; acima disso o POST assíncrono responde 503 **/
+    @Value("${order.ingest.capacity:10000}")
+    private int capacity;
+
+    @Value("${order.ingest.workers:2}")
+    private int workerCount;
+
+    /** Máximo de pedidos gravados por escrita no outbox **/
+    @Value("${order.ingest.batch-size:500}")
+    private int batchSize;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private BlockingQueue<Outbox> queue;
+    private ExecutorService workers;
+    private volatile boolean running = true;
+
+    /** A fila e os workers são criados após a injeção dos @Value **/
+    @PostConstruct
+    public void init(){
+        queue = new ArrayBlockingQueue<>(capacity);
+        var threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            var thread = new Thread(runnable, "order-ingest-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++){
+            workers.execute(this::drain);
+        }
+        Gauge.builder("order.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("order.ingest.rejected", rejected, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * Valida o pedido e coloca na fila de gravação
+     * @param request pedido recebido
+     * @return ids gerados para acompanhar a saga
+     */
+    public OrderAccepted submit(OrderRequest request){
+        orderService.validateRequest(request);
+        var entry = orderService.createOutboxEntry(request);
+        if (!queue.offer(entry)){
+            rejected.increment();
+            throw new OverloadException("Order intake queue is full, try again later.");
+        }
+        accepted.increment();
+        var order = entry.getEvent().getPayload();
+        return new OrderAccepted(order.getId(), order.getTransactionId());
+    }
+
+    public OrderIngestionStats stats(){
+        return OrderIngestionStats
+                .builder()
+                .queueDepth(queue.size())
+                .capacity(capacity)
+                .accepted(accepted.sum())
+                .rejected(rejected.sum())
+                .written(written.sum())
+                .failed(failed.sum())
+                .build();
+    }
+
+    /** Para de aceitar lotes novos só depois que a fila foi gravada **/
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)){
+            log.error("Order intake stopped with {} orders not written | {}", queue.size(), stats());
+        }
+    }
+
+    private void drain(){
+        var batch = new ArrayList<Outbox>(batchSize);
+        while (running || !queue.isEmpty()){
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null){
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Outbox> batch) throws InterruptedException {
+        for (int attempt = 1; attempt <= WRITE_ATTEMPTS; attempt++){
+            try {
+                orderService.saveAll(batch);
+                written.add(batch.size());
+                return;
+            } catch (Exception e) {
+                log.warn("Error writing {} accepted orders, attempt {}: {}", batch.size(), attempt, e.getMessage());
+                Thread.sleep(WRITE_RETRY_BACKOFF_MS * attempt);
+            }
+        }
+        failed.add(batch.size());
+        log.error("Discarding {} accepted orders after {} attempts: {}", batch.size(), WRITE_ATTEMPTS,
+                batch.stream().map(entry -> entry.getEvent().getTransactionId()).toList());
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderAccepted;
+import br.com.microservices.orchestrated.orderservice.core.dto.OrderRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pedidos do POST /api/order?wait=true aguardando o fim da saga, pelo transactionId.
+ * A requisição fica estacionada em um DeferredResult, sem ocupar thread, e é respondida com 200 e o resultado
+ * quando o notify-ending chega, ou com 202 e os ids ao fim do timeout, para o cliente seguir por /api/event.
+ * O notify-ending é lido pelo SagaUpdateConsumer, em um grupo próprio de cada instância, então a resposta chega
+ * à instância que recebeu o POST mesmo quando o registro do tópico é persistido por outra.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderReplyRegistry {
+
+    private final OrderService orderService;
+    private final MeterRegistry meterRegistry;
+
+    /** Tempo máximo de espera pelo fim da saga antes de responder 202 **/
+    @Value("${order.wait.timeout-ms:30000}")
+    private long timeoutMs;
+
+    /** Requisições aguardando ao mesmo tempo; acima disso o pedido é criado e respondido com 202 na hora **/
+    @Value("${order.wait.max-pending:10000}")
+    private int maxPending;
+
+    private final ConcurrentHashMap<String, DeferredResult<ResponseEntity<?>>> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init(){
+        Gauge.builder("order.wait.pending", pending, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    /**
+     * Cria o pedido e aguarda o resultado da saga.
+     * A espera é registrada antes da gravação no outbox, então o notify-ending não tem como chegar antes dela.
+     * @param request pedido recebido
+     */
+    public DeferredResult<ResponseEntity<?>> createAndWait(OrderRequest request){
+        var entry = orderService.createOutboxEntry(request);
+        var order = entry.getEvent().getPayload();
+        var accepted = ResponseEntity.accepted().body(new OrderAccepted(order.getId(), order.getTransactionId()));
+        if (pending.size() >= maxPending){
+            orderService.save(entry);
+            var result = new DeferredResult<ResponseEntity<?>>();
+            result.setResult(accepted);
+            return result;
+        }
+        var result = new DeferredResult<ResponseEntity<?>>(timeoutMs, accepted);
+        var transactionId = order.getTransactionId();
+        result.onCompletion(() -> pending.remove(transactionId, result));
+        pending.put(transactionId, result);
+        try {
+            orderService.save(entry);
+        } catch (RuntimeException e) {
+            pending.remove(transactionId, result);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Responde a requisição que aguarda a saga, se ela estiver nesta instância
+     * @param event evento recebido do notify-ending
+     */
+    public void complete(Event event){
+        var result = pending.remove(event.getTransactionId());
+        if (result != null){
+            result.setResult(ResponseEntity.ok(SagaUpdateBroadcaster.toOutcome(event)));
+        }
+    }
+}
@@ -1,44 +1,125 @@
 package br.com.microservices.orchestrated.orderservice.core.service;
 
 
+import br.com.microservices.orchestrated.orderservice.config.exception.ValidationException;
 import br.com.microservices.orchestrated.orderservice.core.document.Event;
 import br.com.microservices.orchestrated.orderservice.core.document.Order;
+import br.com.microservices.orchestrated.orderservice.core.document.Outbox;
 import br.com.microservices.orchestrated.orderservice.core.dto.OrderRequest;
-import br.com.microservices.orchestrated.orderservice.core.producer.SagaProducer;
-import br.com.microservices.orchestrated.orderservice.core.repository.EventRepository;
 import br.com.microservices.orchestrated.orderservice.core.repository.OrderRepository;
-import br.com.microservices.orchestrated.orderservice.core.utils.JsonUtil;
-import lombok.AllArgsConstructor;
+import br.com.microservices.orchestrated.orderservice.core.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static br.com.microservices.orchestrated.orderservice.core.utils.MongoBulkInserts.insertIgnoringDuplicates;
+import static org.springframework.util.ObjectUtils.isEmpty;
+
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class OrderService {
     /** Pattern do transactionId **/
     private static final String TRANSACTION_ID_PATTERN = "%s_%s";
+    /** Fluxo padrão do orquestrador, também usado quando o pedido não informa o sagaType **/
+    private static final String DEFAULT_SAGA_TYPE = "ORDER";
 
-    /** Conversor objeto e string **/
-    private final JsonUtil jsonUtil;
-    /** Component para envio de saga para produtor start-saga **/
-    private final SagaProducer producer;
-
-    /** Repositorios  **/
+    /** Repositorios: pedido e evento são gravados pelo OutboxRelay  **/
+    private final OutboxRepository outboxRepository;
     private final OrderRepository orderRepository;
-    private final EventService eventService;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Tipos de saga aceitos além do padrão, os mesmos carregados pelo SagaDefinitionRegistry do orquestrador.
+     * Motivo: Um tipo desconhecido só falharia no orquestrador, depois que o pedido já foi aceito e gravado.
+     */
+    @Value("${saga.types:}")
+    private Set<String> sagaTypes;
 
     /**
-     * Método para geração de Order, salvamento em repository e criação + envio de evento  para producer
+     * Método para geração de Order e do evento inicial da saga, gravados juntos em uma única entrada do outbox.
+     * O OutboxRelay grava o pedido e o evento nas suas collections e publica no start-saga em segundo plano.
      * @param request OrderRequest gerado
      * @return Order gerado
      * **/
     public Order createOrder(OrderRequest request){
+        var entry = createOutboxEntry(request);
+        save(entry);
+        return entry.getEvent().getPayload();
+    }
+
+    /**
+     * Método para consultar um pedido pelo transactionId. O pedido só é encontrado depois que o OutboxRelay
+     * grava a entrada, então um pedido aceito pela ingestão assíncrona pode ainda não aparecer.
+     * @param transactionId transactionId devolvido na criação
+     * @return Order gravado
+     */
+    public Order findByTransactionId(String transactionId){
+        if (isEmpty(transactionId)){
+            throw new ValidationException("TransactionID must be informed.");
+        }
+        return orderRepository
+                .findByTransactionId(transactionId)
+                .orElseThrow(() -> new ValidationException("Order not found by transactionID."));
+    }
+
+    /**
+     * Método para gravar uma entrada criada por createOutboxEntry
+     * @param entry entrada com o evento inicial e o pedido
+     */
+    public void save(Outbox entry){
+        outboxRepository.insert(entry);
+    }
+
+    /**
+     * Validação dos pedidos que são respondidos antes de gravados (ingestão assíncrona e em lote),
+     * já que depois da resposta não há como devolver o erro ao cliente
+     * @param request
+     */
+    public void validateRequest(OrderRequest request){
+        if (isEmpty(request.getProducts())){
+            throw new ValidationException("Products list is empty!");
+        }
+        for (var item : request.getProducts()){
+            if (isEmpty(item.getProduct()) || isEmpty(item.getProduct().getCode())){
+                throw new ValidationException("Product must be informed!");
+            }
+            if (item.getQuantity() <= 0){
+                throw new ValidationException("Product quantity must be greater than zero!");
+            }
+        }
+    }
+
+    /**
+     * Método para gravar de uma vez as entradas acumuladas pela ingestão assíncrona e em lote.
+     * Pode ser repetido com as mesmas entradas depois de uma falha: as que já foram gravadas são mantidas
+     * e apenas as restantes são inseridas.
+     * @param entries entradas criadas por createOutboxEntry
+     */
+    public void saveAll(List<Outbox> entries){
+        insertIgnoringDuplicates(mongoTemplate, entries, Outbox.class);
+    }
+
+    /**
+     * Método para geração de Order e do evento inicial, ainda sem gravar.
+     * Os ids são gerados aqui para que o pedido e a entrada já tenham o id definitivo antes da gravação,
+     * o que torna a repetição de saveAll segura.
+     * @param request OrderRequest gerado
+     * @return entrada do outbox com o evento e o pedido no payload
+     */
+    public Outbox createOutboxEntry(OrderRequest request){
+        validateSagaType(request.getSagaType());
         var order = Order
                     .builder()
+                    .id(new ObjectId().toHexString())
                     .products(request.getProducts())
                     .createdAt(LocalDateTime.now())
                     .transactionId(
@@ -46,29 +127,41 @@ public class OrderService {
                         String.format(TRANSACTION_ID_PATTERN, Instant.now().toEpochMilli(), UUID.randomUUID())
                     )
                     .build();
-        orderRepository.save(order);
-        /** Converte em string/json antes do envio **/
-        producer.sendEvent(jsonUtil.toJson(createPayload(order)));
-        return order;
+        return Outbox
+                .builder()
+                .id(new ObjectId().toHexString())
+                .event(createPayload(order, request.getSagaType()))
+                .createdAt(LocalDateTime.now())
+                .build();
     }
 
 
     /**
-     *  Método para criação de payload de evento e persistencia em mongodb.
+     * Recusa o pedido cujo sagaType o orquestrador não conhece, antes de qualquer gravação
+     * @param sagaType tipo de saga informado no request, vazio para o fluxo padrão
+     */
+    private void validateSagaType(String sagaType){
+        if (!isEmpty(sagaType) && !DEFAULT_SAGA_TYPE.equals(sagaType) && !sagaTypes.contains(sagaType)){
+            throw new ValidationException(String.format("Saga type %s not found!", sagaType));
+        }
+    }
+
+    /**
+     *  Método para criação de payload de evento.
      *
      * @param order Order gerado em createOrder
+     * @param sagaType tipo de saga informado no request
      * @return event gerado
      */
-    private Event createPayload(Order order){
-        var event = Event
+    private Event createPayload(Order order, String sagaType){
+        return Event
                     .builder()
+                .id(new ObjectId().toHexString())
                 .transactionId(order.getTransactionId())
+                    .sagaType(sagaType)
                     .payload(order)
                     .orderId(order.getId())
                     .createdAt(LocalDateTime.now())
                     .build();
-
-        eventService.save(event);
-        return event;
    }
 }
@@ -0,0 +1,109 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+/**
+ * Cache em memória do estado final das sagas, consultado pelo GET /api/event antes do MongoDB.
+ * É preenchido pelo notify-ending com o documento completo e, em uma falta, pela própria consulta quando
+ * a saga já terminou. Sagas em andamento nunca ficam no cache, pois o documento ainda vai mudar.
+ * O limite é de memória estimada (e não de quantidade), porque o tamanho do evento varia com o histórico e os produtos.
+ * Métricas: cache.gets (hit/miss), cache.evictions e cache.size com a tag cache=saga-outcome, e event.cache.hit.ratio.
+ */
+@Service
+@RequiredArgsConstructor
+public class SagaOutcomeCache {
+
+    private static final String CACHE_NAME = "saga-outcome";
+    private static final String ORDER_KEY = "order:";
+    private static final String TRANSACTION_KEY = "transaction:";
+
+    /** Estimativa do espaço ocupado por um evento sem textos: objetos, cabeçalhos e referências **/
+    private static final int EVENT_BASE_BYTES = 512;
+    private static final int HISTORY_BASE_BYTES = 96;
+    private static final int PRODUCT_BYTES = 96;
+
+    private final MeterRegistry meterRegistry;
+
+    /** Memória estimada máxima; cada evento ocupa duas entradas (orderId e transactionId) e é contado nas duas **/
+    @Value("${order.event-cache.max-memory-mb:64}")
+    private long maxMemoryMb;
+
+    /** Tempo de vida de cada entrada, que também limita quanto tempo uma instância pode servir um estado desatualizado **/
+    @Value("${order.event-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<String, Event> cache;
+
+    @PostConstruct
+    public void init(){
+        cache = Caffeine
+                .newBuilder()
+                .maximumWeight(maxMemoryMb * 1024 * 1024)
+                .weigher((String key, Event event) -> estimateBytes(event))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("event.cache.hit.ratio", cache, value -> value.stats().hitRate()).register(meterRegistry);
+    }
+
+    public Optional<Event> findByOrderId(String orderId){
+        return Optional.ofNullable(cache.getIfPresent(ORDER_KEY + orderId));
+    }
+
+    public Optional<Event> findByTransactionId(String transactionId){
+        return Optional.ofNullable(cache.getIfPresent(TRANSACTION_KEY + transactionId));
+    }
+
+    /**
+     * Guarda o evento se a saga já terminou
+     * @param event documento completo do evento
+     */
+    public void putIfFinished(Event event){
+        if (event == null || isEmpty(event.getStatus())){
+            return;
+        }
+        cache.put(ORDER_KEY + event.getOrderId(), event);
+        cache.put(TRANSACTION_KEY + event.getTransactionId(), event);
+    }
+
+    /**
+     * Remove o evento quando o documento muda depois de guardado, como um histórico de participante que chega
+     * depois do notify-ending. A próxima consulta lê o MongoDB e guarda de novo.
+     */
+    public void evict(String orderId, String transactionId){
+        cache.invalidate(ORDER_KEY + orderId);
+        cache.invalidate(TRANSACTION_KEY + transactionId);
+    }
+
+    private static int estimateBytes(Event event){
+        var bytes = EVENT_BASE_BYTES;
+        if (event.getEventHistory() != null){
+            for (var history : event.getEventHistory()){
+                bytes += HISTORY_BASE_BYTES + textBytes(history.getMessage());
+            }
+        }
+        if (event.getPayload() != null && event.getPayload().getProducts() != null){
+            bytes += event.getPayload().getProducts().size() * PRODUCT_BYTES;
+        }
+        return bytes;
+    }
+
+    private static int textBytes(String text){
+        return text == null ? 0 : text.length() * 2;
+    }
+}
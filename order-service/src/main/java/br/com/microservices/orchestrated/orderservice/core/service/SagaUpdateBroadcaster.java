@@ -0,0 +1,292 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.config.exception.OverloadException;
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.History;
+import br.com.microservices.orchestrated.orderservice.core.dto.EventFilters;
+import br.com.microservices.orchestrated.orderservice.core.dto.SagaUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+/**
+ * Distribui as atualizações das sagas aos assinantes do /api/event/stream (server-sent events).
+ * Os assinantes ficam em um ConcurrentHashMap pela chave do filtro (orderId, transactionId ou todas as sagas),
+ * então publicar é uma leitura sem lock de no máximo três conjuntos.
+ * Cada assinante tem um buffer limitado: o listener do Kafka apenas enfileira, e o envio é feito em uma thread virtual
+ * por assinante. Um cliente lento que enche o buffer é desconectado, sem atrasar os demais nem o consumo do tópico.
+ * Nenhuma atualização consulta o banco; ao assinar uma saga específica, o resultado final já conhecido vem do SagaOutcomeCache.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SagaUpdateBroadcaster {
+
+    private static final String ALL_KEY = "*";
+    private static final String ORDER_KEY = "order:";
+    private static final String TRANSACTION_KEY = "transaction:";
+    private static final String OUTCOME_EVENT = "outcome";
+    private static final String STEP_EVENT = "step";
+
+    private final SagaOutcomeCache outcomeCache;
+    private final MeterRegistry meterRegistry;
+
+    /** Conexões abertas ao mesmo tempo; acima disso a assinatura responde 503 **/
+    @Value("${order.event-stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    /** Atualizações pendentes por assinante antes de ele ser considerado lento e desconectado **/
+    @Value("${order.event-stream.buffer-size:32}")
+    private int bufferSize;
+
+    /** Duração máxima de uma conexão; o cliente de SSE reconecta sozinho **/
+    @Value("${order.event-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final ConcurrentHashMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private Counter dropped;
+
+    @PostConstruct
+    public void init(){
+        Gauge.builder("event.stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        dropped = Counter.builder("event.stream.dropped").register(meterRegistry);
+    }
+
+    /**
+     * Abre uma assinatura. Sem filtros recebe todas as sagas; com orderId ou transactionId, apenas a saga
+     * informada, e a conexão é encerrada depois do resultado final.
+     * @param filters orderId ou transactionId, opcionais
+     * @param steps também envia os passos intermediários, e não apenas o resultado final
+     */
+    public SseEmitter subscribe(EventFilters filters, boolean steps){
+        if (subscriberCount.incrementAndGet() > maxSubscribers){
+            subscriberCount.decrementAndGet();
+            throw new OverloadException("Too many saga stream subscribers, try again later.");
+        }
+        var key = keyOf(filters);
+        var subscriber = new Subscriber(new SseEmitter(timeoutMs), key, steps);
+        subscribers.compute(key, (ignored, set) -> {
+            var current = set == null ? ConcurrentHashMap.<Subscriber>newKeySet() : set;
+            current.add(subscriber);
+            return current;
+        });
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+        if (!ALL_KEY.equals(key)){
+            findKnownOutcome(filters).ifPresent(event -> subscriber.offer(toOutcome(event)));
+        }
+        return subscriber.emitter;
+    }
+
+    /** Resultado final recebido do notify-ending **/
+    public void publishOutcome(Event event){
+        publish(toOutcome(event));
+    }
+
+    /** Passos adicionados por um participante, recebidos do tópico do orquestrador **/
+    public void publishSteps(Event event){
+        if (isEmpty(event.getEventHistory())){
+            return;
+        }
+        for (var history : event.getEventHistory()){
+            publish(toUpdate(event, history, false));
+        }
+    }
+
+    /** Comentário periódico para manter a conexão aberta em proxies e detectar clientes que já saíram **/
+    @Scheduled(fixedDelayString = "${order.event-stream.heartbeat-ms:15000}")
+    public void heartbeat(){
+        subscribers.values().forEach(set -> set.forEach(Subscriber::heartbeat));
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void publish(SagaUpdate update){
+        deliver(subscribers.get(ALL_KEY), update);
+        deliver(subscribers.get(ORDER_KEY + update.getOrderId()), update);
+        deliver(subscribers.get(TRANSACTION_KEY + update.getTransactionId()), update);
+    }
+
+    private static void deliver(Set<Subscriber> targets, SagaUpdate update){
+        if (targets == null){
+            return;
+        }
+        for (var subscriber : targets){
+            if (update.isFinished() || subscriber.steps){
+                subscriber.offer(update);
+            }
+        }
+    }
+
+    private Optional<Event> findKnownOutcome(EventFilters filters){
+        return isEmpty(filters.getOrderId())
+                ? outcomeCache.findByTransactionId(filters.getTransactionId())
+                : outcomeCache.findByOrderId(filters.getOrderId());
+    }
+
+    private static String keyOf(EventFilters filters){
+        if (!isEmpty(filters.getOrderId())){
+            return ORDER_KEY + filters.getOrderId();
+        }
+        if (!isEmpty(filters.getTransactionId())){
+            return TRANSACTION_KEY + filters.getTransactionId();
+        }
+        return ALL_KEY;
+    }
+
+    /** O resultado final leva a última entrada do histórico, que é a mensagem de encerramento do orquestrador **/
+    static SagaUpdate toOutcome(Event event){
+        var history = isEmpty(event.getEventHistory())
+                ? null
+                : event.getEventHistory().get(event.getEventHistory().size() - 1);
+        var update = toUpdate(event, history, true);
+        update.setSource(event.getSource());
+        update.setStatus(event.getStatus());
+        return update;
+    }
+
+    private static SagaUpdate toUpdate(Event event, History history, boolean finished){
+        return SagaUpdate
+                .builder()
+                .orderId(event.getOrderId())
+                .transactionId(event.getTransactionId())
+                .source(history == null ? null : history.getSource())
+                .status(history == null ? null : history.getStatus())
+                .message(history == null ? null : history.getMessage())
+                .createdAt(history == null ? event.getCreatedAt() : history.getCreatedAt())
+                .finished(finished)
+                .build();
+    }
+
+    /**
+     * Conexão de um assinante. Apenas a thread de envio escreve no SseEmitter, já que um envio para um cliente lento
+     * pode bloquear; quem publica só enfileira no buffer e agenda o envio.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final String key;
+        private final boolean steps;
+        private final BlockingQueue<SagaUpdate> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean completePending;
+
+        private Subscriber(SseEmitter emitter, String key, boolean steps) {
+            this.emitter = emitter;
+            this.key = key;
+            this.steps = steps;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(SagaUpdate update){
+            if (closed.get()){
+                return;
+            }
+            if (!buffer.offer(update)){
+                dropped.increment();
+                log.warn("Dropping slow saga stream subscriber {} with {} pending updates", key, buffer.size());
+                completePending = true;
+                close();
+            }
+            schedule();
+        }
+
+        private void heartbeat(){
+            heartbeatPending.set(true);
+            schedule();
+        }
+
+        private void schedule(){
+            if (scheduled.compareAndSet(false, true)){
+                senders.execute(this);
+            }
+        }
+
+        @Override
+        public void run(){
+            try {
+                send();
+            } finally {
+                scheduled.set(false);
+            }
+            if (completePending || (!closed.get() && (!buffer.isEmpty() || heartbeatPending.get()))){
+                schedule();
+            }
+        }
+
+        private void send(){
+            try {
+                if (completePending){
+                    completePending = false;
+                    buffer.clear();
+                    emitter.complete();
+                    return;
+                }
+                if (heartbeatPending.getAndSet(false)){
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                var pending = new ArrayList<SagaUpdate>(buffer.size());
+                buffer.drainTo(pending);
+                for (var update : pending){
+                    emitter.send(SseEmitter
+                            .event()
+                            .name(update.isFinished() ? OUTCOME_EVENT : STEP_EVENT)
+                            .data(update, MediaType.APPLICATION_JSON));
+                    if (update.isFinished() && !ALL_KEY.equals(key)){
+                        close();
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Saga stream subscriber {} disconnected: {}", key, e.getMessage());
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+
+        /** Sai do registro uma única vez, seja por desconexão, timeout, resultado final ou lentidão **/
+        private void close(){
+            if (!closed.compareAndSet(false, true)){
+                return;
+            }
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(key, (ignored, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.microservices.orchestrated.orderservice.core.utils;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * Inserção em bulk que pode ser repetida: os documentos já têm o id definitivo antes da primeira tentativa,
+ * a escrita é UNORDERED (uma falha não interrompe os demais documentos) e chave duplicada conta como gravado.
+ * Assim, repetir um lote depois de uma gravação parcial grava apenas o que faltou.
+ */
+public final class MongoBulkInserts {
+
+    /** Código do MongoDB para chave duplicada **/
+    private static final int DUPLICATE_KEY = 11000;
+
+    private MongoBulkInserts() {
+    }
+
+    /**
+     * Insere os documentos em uma única escrita em bulk, mantendo os que já estavam gravados
+     * @throws BulkOperationException se algum documento falhou por outro motivo que não chave duplicada
+     */
+    public static void insertIgnoringDuplicates(MongoTemplate mongoTemplate, List<?> documents, Class<?> type) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(documents).execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package br.com.microservices.orchestrated.orderservice.core.repository;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.History;
+import br.com.microservices.orchestrated.orderservice.core.document.Order;
+import br.com.microservices.orchestrated.orderservice.core.document.OrderProducts;
+import br.com.microservices.orchestrated.orderservice.core.document.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Grava segmentos em um diretório temporário e os lê de volta por orderId e transactionId, com blocos pequenos
+ * para que as buscas passem pelo índice esparso e caiam no meio e nas bordas dos blocos.
+ */
+class EventSegmentTest {
+
+    private static final int BLOCK_SIZE = 4;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 10, 14, 30, 15);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsEveryEventByOrderIdAndTransactionId() throws IOException {
+        var events = events(30);
+        var segment = EventSegment.write(directory, 1, events, BLOCK_SIZE, objectMapper);
+
+        assertThat(segment.count()).isEqualTo(30);
+        for (var event : events) {
+            assertThat(segment.findByOrderId(event.getOrderId())).contains(event);
+            assertThat(segment.findByTransactionId(event.getTransactionId())).contains(event);
+        }
+    }
+
+    @Test
+    void reopenedSegmentFindsTheSameEvents() throws IOException {
+        var events = events(30);
+        var written = EventSegment.write(directory, 1, events, BLOCK_SIZE, objectMapper);
+
+        var segment = EventSegment.open(written.file(), objectMapper);
+
+        assertThat(segment.count()).isEqualTo(30);
+        assertThat(segment.findByOrderId("order-017")).contains(events.get(17));
+        assertThat(segment.findByTransactionId("transaction-029")).contains(events.get(29));
+    }
+
+    @Test
+    void keysNotInSegmentAreNotFound() throws IOException {
+        var segment = EventSegment.write(directory, 1, events(30), BLOCK_SIZE, objectMapper);
+
+        // Antes da primeira chave, entre duas chaves do mesmo bloco e depois da última
+        for (var missing : List.of("a", "order-0105", "order-999", "zzz")) {
+            assertThat(segment.findByOrderId(missing)).isEmpty();
+        }
+        for (var missing : List.of("a", "transaction-0105", "transaction-999", "zzz")) {
+            assertThat(segment.findByTransactionId(missing)).isEmpty();
+        }
+    }
+
+    @Test
+    void findByOrderIdReturnsMostRecentEventOfTheOrder() throws IOException {
+        var events = new ArrayList<>(events(10));
+        var retried = event(3, "transaction-retry", CREATED_AT.plusHours(1));
+        events.add(retried);
+        var segment = EventSegment.write(directory, 1, events, BLOCK_SIZE, objectMapper);
+
+        assertThat(segment.findByOrderId("order-003")).contains(retried);
+        assertThat(segment.findByTransactionId("transaction-003")).contains(events.get(3));
+        assertThat(segment.findByTransactionId("transaction-retry")).contains(retried);
+    }
+
+    @Test
+    void eventsWithTheSameOrderIdAreKeptInOneBlock() throws IOException {
+        var events = IntStream.range(0, 10)
+                .mapToObj(index -> event(1, "transaction-" + index, CREATED_AT.plusMinutes(index)))
+                .toList();
+        var segment = EventSegment.write(directory, 1, events, BLOCK_SIZE, objectMapper);
+
+        assertThat(segment.findByOrderId("order-001")).contains(events.get(9));
+        for (var event : events) {
+            assertThat(segment.findByTransactionId(event.getTransactionId())).contains(event);
+        }
+    }
+
+    @Test
+    void eventWithoutIdsIsArchivedUnderEmptyKey() throws IOException {
+        var event = Event.builder().id("event-without-ids").status("FAIL").createdAt(CREATED_AT).build();
+        var segment = EventSegment.write(directory, 1, List.of(event), BLOCK_SIZE, objectMapper);
+
+        assertThat(segment.findByOrderId("")).contains(event);
+        assertThat(segment.findByTransactionId("")).contains(event);
+    }
+
+    @Test
+    void writeFailsWhenSegmentAlreadyExists() throws IOException {
+        var segment = EventSegment.write(directory, 1, events(5), BLOCK_SIZE, objectMapper);
+        var original = Files.readAllBytes(segment.file());
+
+        assertThatThrownBy(() -> EventSegment.write(directory, 1, events(8), BLOCK_SIZE, objectMapper))
+                .isInstanceOf(FileAlreadyExistsException.class);
+        assertThat(Files.readAllBytes(segment.file())).isEqualTo(original);
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(EventSegment::isTemporary)).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsTruncatedSegment() throws IOException {
+        var file = EventSegment.write(directory, 1, events(30), BLOCK_SIZE, objectMapper).file();
+        var data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length / 2));
+
+        assertThatThrownBy(() -> EventSegment.open(file, objectMapper))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("invalid trailer");
+    }
+
+    @Test
+    void rejectsFileTooSmallToBeASegment() throws IOException {
+        var file = directory.resolve("events-000000000001.seg");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        assertThatThrownBy(() -> EventSegment.open(file, objectMapper))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    void rejectsSegmentWithCorruptedFooter() throws IOException {
+        var file = EventSegment.write(directory, 1, events(30), BLOCK_SIZE, objectMapper).file();
+        var data = Files.readAllBytes(file);
+        // A posição do rodapé é o long antes do MAGIC final; o rodapé começa com o cabeçalho gzip
+        var footerOffset = (int) ByteBuffer.wrap(data, data.length - Long.BYTES - Integer.BYTES, Long.BYTES).getLong();
+        Arrays.fill(data, footerOffset, footerOffset + 4, (byte) 0);
+        Files.write(file, data);
+
+        assertThatThrownBy(() -> EventSegment.open(file, objectMapper)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void lookupFailsWhenBlockIsCorruptedAfterOpen() throws IOException {
+        var segment = EventSegment.write(directory, 1, events(30), BLOCK_SIZE, objectMapper);
+        var data = Files.readAllBytes(segment.file());
+        // O primeiro bloco de eventos começa logo depois do MAGIC inicial
+        Arrays.fill(data, Integer.BYTES, Integer.BYTES + 16, (byte) 0);
+        Files.write(segment.file(), data);
+
+        assertThatThrownBy(() -> segment.findByOrderId("order-000")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void sequenceIsReadOnlyFromFinishedSegmentNames() {
+        assertThat(EventSegment.sequenceOf(Path.of("events-000000000042.seg"))).isEqualTo(42);
+        assertThat(EventSegment.sequenceOf(Path.of("events-000000000042.seg.tmp"))).isEqualTo(-1);
+        assertThat(EventSegment.sequenceOf(Path.of("events-abc.seg"))).isEqualTo(-1);
+        assertThat(EventSegment.sequenceOf(Path.of("other.seg"))).isEqualTo(-1);
+        assertThat(EventSegment.isTemporary(Path.of("events-000000000042.seg.tmp"))).isTrue();
+        assertThat(EventSegment.isTemporary(Path.of("events-000000000042.seg"))).isFalse();
+    }
+
+    static List<Event> events(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> event(index, "transaction-%03d".formatted(index), CREATED_AT.plusSeconds(index)))
+                .toList();
+    }
+
+    static Event event(int order, String transactionId, LocalDateTime createdAt) {
+        var orderId = "order-%03d".formatted(order);
+        var payload = Order.builder()
+                .id(orderId)
+                .transactionId(transactionId)
+                .createdAt(createdAt)
+                .products(List.of(new OrderProducts(new Product("COMIC_BOOKS", 15.5), 2)))
+                .totalAmount(31.0)
+                .totalItems(2)
+                .build();
+        var history = History.builder()
+                .source("ORCHESTRATOR")
+                .status("SUCCESS")
+                .message("Saga finalizada ✓")
+                .createdAt(createdAt)
+                .sequence(1)
+                .build();
+        return Event.builder()
+                .id("event-" + transactionId)
+                .transactionId(transactionId)
+                .orderId(orderId)
+                .payload(payload)
+                .source("ORCHESTRATOR")
+                .status("SUCCESS")
+                .eventHistory(List.of(history))
+                .createdAt(createdAt)
+                .historySequence(1)
+                .build();
+    }
+}
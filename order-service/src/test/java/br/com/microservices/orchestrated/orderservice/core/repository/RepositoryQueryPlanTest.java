@@ -0,0 +1,183 @@
+package br.com.microservices.orchestrated.orderservice.core.repository;
+
+import br.com.microservices.orchestrated.orderservice.config.mongo.MongoIndexConfig;
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.document.Order;
+import br.com.microservices.orchestrated.orderservice.core.document.Outbox;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Executa as consultas reais dos repositórios contra um MongoDB com os índices do MongoIndexConfig e confere,
+ * pelo explain() do comando gravado no profiler, que cada uma usa índice e não lê a collection inteira.
+ */
+@Testcontainers
+@DataMongoTest(properties = "spring.data.mongodb.database=order-query-plan")
+@Import(MongoIndexConfig.class)
+class RepositoryQueryPlanTest {
+
+    /** Campos da sessão e do driver gravados no profiler que não fazem parte do comando explicado **/
+    private static final Set<String> DRIVER_FIELDS = Set.of("lsid", "$db", "$clusterTime", "$readPreference", "txnNumber");
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    void setUp() {
+        eventRepository.deleteAll();
+        outboxRepository.deleteAll();
+        orderRepository.deleteAll();
+        // Metade das sagas finalizadas, para que findArchivable tenha o que filtrar
+        eventRepository.insert(IntStream.range(0, 50)
+                .mapToObj(i -> Event.builder()
+                        .transactionId("transaction-" + i)
+                        .orderId("order-" + i)
+                        .status(i % 2 == 0 ? "SUCCESS" : null)
+                        .createdAt(now.minusSeconds(i))
+                        .build())
+                .toList());
+        orderRepository.insert(IntStream.range(0, 50)
+                .mapToObj(i -> Order.builder()
+                        .id("order-" + i)
+                        .transactionId("transaction-" + i)
+                        .createdAt(now.minusSeconds(i))
+                        .build())
+                .toList());
+        outboxRepository.insert(IntStream.range(0, 50)
+                .mapToObj(i -> Outbox.builder().createdAt(now.minusSeconds(i)).build())
+                .toList());
+        mongoTemplate.getDb().runCommand(new Document("profile", 2));
+    }
+
+    @Test
+    void findTop1ByOrderIdUsesIndex() {
+        eventRepository.findTop1ByOrderIdOrderByCreatedAtDesc("order-1");
+
+        assertUsesIndex(Event.class);
+    }
+
+    @Test
+    void findTop1ByTransactionIdUsesIndex() {
+        eventRepository.findTop1ByTransactionIdOrderByCreatedAtDesc("transaction-1");
+
+        assertUsesIndex(Event.class);
+    }
+
+    @Test
+    void findAllByTransactionIdInUsesIndex() {
+        eventRepository.findAllByTransactionIdIn(List.of("transaction-1", "transaction-2"));
+
+        assertUsesIndex(Event.class);
+    }
+
+    @Test
+    void findFirstPageUsesIndex() {
+        eventRepository.findPage(null, null, 10);
+
+        assertUsesIndex(Event.class);
+    }
+
+    @Test
+    void findNextPageUsesIndex() {
+        var page = eventRepository.findPage(null, null, 10);
+        var last = page.get(page.size() - 1);
+
+        eventRepository.findPage(last.getCreatedAt(), last.getId(), 10);
+
+        assertUsesIndex(Event.class);
+    }
+
+    @Test
+    void findAllByOrderByCreatedAtDescUsesIndex() {
+        eventRepository.findAllByOrderByCreatedAtDesc();
+
+        assertUsesIndex(Event.class);
+    }
+
+    @Test
+    void findArchivableUsesIndex() {
+        var archivable = eventRepository.findArchivable(now.minusSeconds(10), 10);
+
+        assertThat(archivable).isNotEmpty().allMatch(event -> event.getStatus() != null);
+        assertUsesIndex(Event.class);
+    }
+
+    @Test
+    void findOrderByTransactionIdUsesIndex() {
+        assertThat(orderRepository.findByTransactionId("transaction-1")).isPresent();
+
+        assertUsesIndex(Order.class);
+    }
+
+    @Test
+    void findClaimableUsesIndex() {
+        outboxRepository.findClaimable(now, PageRequest.of(0, 10));
+
+        assertUsesIndex(Outbox.class);
+    }
+
+    /** Explica o último find gravado no profiler para a collection e confere os estágios do plano vencedor **/
+    private void assertUsesIndex(Class<?> type) {
+        var namespace = mongoTemplate.getDb().getName() + "." + mongoTemplate.getCollectionName(type);
+        var profiled = mongoTemplate.getDb().getCollection("system.profile")
+                .find(new Document("ns", namespace).append("op", "query"))
+                .sort(new Document("$natural", -1))
+                .first();
+        assertThat(profiled).as("find on %s recorded by the profiler", namespace).isNotNull();
+
+        var command = new Document(profiled.get("command", Document.class));
+        DRIVER_FIELDS.forEach(command::remove);
+        var explain = mongoTemplate.getDb().runCommand(new Document("explain", command).append("verbosity", "queryPlanner"));
+        var stages = new ArrayList<String>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan"), stages);
+
+        assertThat(stages).as("plan of %s", command.toJson()).contains("IXSCAN").doesNotContain("COLLSCAN");
+    }
+
+    /** O plano é uma árvore (inputStage, inputStages, queryPlan no SBE); todos os estágios são coletados **/
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            map.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
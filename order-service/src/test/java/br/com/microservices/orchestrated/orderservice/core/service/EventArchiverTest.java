@@ -0,0 +1,167 @@
+package br.com.microservices.orchestrated.orderservice.core.service;
+
+import br.com.microservices.orchestrated.orderservice.core.document.Event;
+import br.com.microservices.orchestrated.orderservice.core.repository.EventArchiveRepository;
+import br.com.microservices.orchestrated.orderservice.core.repository.EventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ciclo do arquivamento com o MongoDB simulado e o arquivo em um diretório temporário: os eventos só saem do
+ * MongoDB depois que o segmento está gravado e visível nas buscas.
+ */
+class EventArchiverTest {
+
+    private static final int SEGMENT_SIZE = 4;
+    private static final int MIN_SEGMENT_EVENTS = 3;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 10, 14, 30, 15);
+
+    @TempDir
+    Path temp;
+
+    private Path directory;
+    private EventRepository repository;
+    private EventArchiveRepository archiveRepository;
+    private EventArchiver archiver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = temp.resolve("archive");
+        repository = mock(EventRepository.class);
+        archiveRepository = new EventArchiveRepository(new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(archiveRepository, "enabled", true);
+        ReflectionTestUtils.setField(archiveRepository, "directory", directory.toString());
+        ReflectionTestUtils.setField(archiveRepository, "blockSize", 2);
+        archiveRepository.init();
+
+        archiver = new EventArchiver(repository, archiveRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "writer", true);
+        ReflectionTestUtils.setField(archiver, "olderThanHours", 168L);
+        ReflectionTestUtils.setField(archiver, "segmentSize", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(archiver, "minSegmentEvents", MIN_SEGMENT_EVENTS);
+        archiver.init();
+    }
+
+    @Test
+    void writesSegmentBeforeDeletingEventsFromMongo() {
+        var events = events(0, 3);
+        when(repository.findArchivable(any(), anyInt())).thenReturn(events, List.of());
+        var segmentsAtDelete = new ArrayList<Integer>();
+        doAnswer(invocation -> segmentsAtDelete.add(archiveRepository.segmentCount()))
+                .when(repository).deleteAllById(any());
+
+        archiver.archive();
+
+        assertThat(segmentsAtDelete).containsExactly(1);
+        verify(repository).deleteAllById(ids(events));
+        for (var event : events) {
+            assertThat(archiveRepository.findByOrderId(event.getOrderId())).contains(event);
+            assertThat(archiveRepository.findByTransactionId(event.getTransactionId())).contains(event);
+        }
+    }
+
+    @Test
+    void writesSegmentsWhileTheyAreFull() {
+        var first = events(0, SEGMENT_SIZE);
+        var second = events(SEGMENT_SIZE, SEGMENT_SIZE);
+        when(repository.findArchivable(any(), anyInt())).thenReturn(first, second, events(2 * SEGMENT_SIZE, 1));
+
+        archiver.archive();
+
+        assertThat(archiveRepository.segmentCount()).isEqualTo(2);
+        verify(repository).deleteAllById(ids(first));
+        verify(repository).deleteAllById(ids(second));
+        verify(repository, times(3)).findArchivable(any(), anyInt());
+    }
+
+    @Test
+    void skipsCycleWithFewerEventsThanTheMinimumSegment() throws IOException {
+        when(repository.findArchivable(any(), anyInt())).thenReturn(events(0, MIN_SEGMENT_EVENTS - 1));
+
+        archiver.archive();
+
+        assertThat(archiveRepository.segmentCount()).isZero();
+        verify(repository, never()).deleteAllById(any());
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void keepsEventsInMongoWhenSegmentCannotBeWritten() throws IOException {
+        when(repository.findArchivable(any(), anyInt())).thenReturn(events(0, 3));
+        Files.delete(directory);
+
+        archiver.archive();
+
+        assertThat(archiveRepository.segmentCount()).isZero();
+        verify(repository, never()).deleteAllById(any());
+    }
+
+    @Test
+    void archivesAgainWhenDeleteFailsAfterTheSegmentWasWritten() {
+        var events = events(0, 3);
+        when(repository.findArchivable(any(), anyInt())).thenReturn(events);
+        doThrow(new IllegalStateException("MongoDB unavailable")).doNothing().when(repository).deleteAllById(any());
+
+        assertThatThrownBy(archiver::archive).isInstanceOf(IllegalStateException.class);
+        archiver.archive();
+
+        // A saga fica nos dois segmentos, e a busca lê a cópia do segmento mais novo
+        assertThat(archiveRepository.segmentCount()).isEqualTo(2);
+        verify(repository, times(2)).deleteAllById(ids(events));
+        assertThat(archiveRepository.findByOrderId(events.get(0).getOrderId())).contains(events.get(0));
+    }
+
+    @Test
+    void removesIncompleteSegmentsOnStart() throws IOException {
+        var incomplete = Files.createFile(directory.resolve("events-000000000001.seg.tmp"));
+
+        archiver.init();
+
+        assertThat(incomplete).doesNotExist();
+    }
+
+    private static List<Event> events(int first, int count) {
+        return IntStream.range(first, first + count)
+                .mapToObj(index -> Event.builder()
+                        .id("event-" + index)
+                        .transactionId("transaction-" + index)
+                        .orderId("order-" + index)
+                        .source("ORCHESTRATOR")
+                        .status("SUCCESS")
+                        .createdAt(CREATED_AT.plusSeconds(index))
+                        .build())
+                .toList();
+    }
+
+    private static List<String> ids(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+}
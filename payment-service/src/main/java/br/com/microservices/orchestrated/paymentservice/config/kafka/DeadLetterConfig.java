@@ -0,0 +1,78 @@
+package br.com.microservices.orchestrated.paymentservice.config.kafka;
+
+import br.com.microservices.orchestrated.paymentservice.core.dto.Event;
+import br.com.microservices.orchestrated.sagacontracts.SagaDeadLetters;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+/**
+ * Configuração do tratamento dos registros que não podem ser processados (poison records).
+ * O ErrorHandlingDeserializer do consumerFactory transforma um corpo ilegível em erro do registro, em vez de
+ * falhar o poll inteiro; o error handler abaixo envia esse registro para o tópico <original>.DLT e o offset avança,
+ * então uma mensagem ruim não trava a partição nem a vazão da saga. O tratamento fica no SagaDeadLetters (saga-contracts).
+ */
+@Configuration
+public class DeadLetterConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServer;
+
+    @Value("${spring.kafka.topic.payment-success}")
+    private String paymentSuccessTopic;
+
+    @Value("${spring.kafka.topic.payment-fail}")
+    private String paymentFailTopic;
+
+    /**
+     * Retentativas em memória para erros de processamento antes de enviar o registro ao DLT.
+     * Motivo: Falhas transitórias (ex: banco indisponível por instantes) se resolvem sozinhas, mas cada retentativa
+     * segura a partição, então o número é baixo. Corpos que não podem ser lidos não são retentados.
+     */
+    @Value("${saga.dead-letter.retries:2}")
+    private Long retries;
+
+    /** Intervalo entre as retentativas **/
+    @Value("${saga.dead-letter.retry-backoff-ms:100}")
+    private Long retryBackoffMs;
+
+    /**
+     * Template para publicar no DLT os corpos que não puderam ser lidos, exatamente como chegaram.
+     * Motivo: O KafkaTemplate principal só serializa Event.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> deadLetterTemplate() {
+        return SagaDeadLetters.rawTemplate(bootstrapServer);
+    }
+
+    /** Publica o registro em <original>.DLT e conta na métrica saga.dead.letter **/
+    @Bean
+    public ConsumerRecordRecoverer deadLetterRecoverer(KafkaTemplate<String, byte[]> deadLetterTemplate,
+                                                       KafkaTemplate<String, Event> kafkaTemplate,
+                                                       MeterRegistry meterRegistry) {
+        return SagaDeadLetters.recoverer(deadLetterTemplate, kafkaTemplate, Event.class, meterRegistry);
+    }
+
+    /**
+     * Error handler usado pelo container padrão dos listeners (o Spring Boot aplica o bean automaticamente).
+     * Corpos ilegíveis vão direto para o DLT; os demais erros são retentados e depois enviados ao DLT.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(ConsumerRecordRecoverer deadLetterRecoverer) {
+        return SagaDeadLetters.errorHandler(deadLetterRecoverer, retryBackoffMs, retries);
+    }
+
+    /** Configuração para iniciar os tópicos de dead letter dos tópicos consumidos por este serviço **/
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics() {
+        return new KafkaAdmin.NewTopics(
+                SagaDeadLetters.topic(paymentSuccessTopic),
+                SagaDeadLetters.topic(paymentFailTopic)
+        );
+    }
+}
@@ -1,5 +1,14 @@
 package br.com.microservices.orchestrated.paymentservice.config.kafka;
 
+import br.com.microservices.orchestrated.paymentservice.core.dto.Event;
+import br.com.microservices.orchestrated.paymentservice.core.utils.EventWireMapper;
+import br.com.microservices.orchestrated.sagacontracts.SagaBufferPool;
+import br.com.microservices.orchestrated.sagacontracts.SagaDeserializer;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventCodec;
+import br.com.microservices.orchestrated.sagacontracts.SagaEventFormat;
+import br.com.microservices.orchestrated.sagacontracts.SagaSender;
+import br.com.microservices.orchestrated.sagacontracts.SagaSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -9,9 +18,11 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
 import javax.swing.*;
 import java.util.HashMap;
@@ -65,20 +76,69 @@ public class KafkaConfig {
     @Value("${spring.kafka.topic.payment-fail}")
     private String paymentFailTopic;
 
-    /** Valores Fixos para partição e replicas para criação de tópicos **/
-    private static final Integer PARTITION_COUNT = 1;
+    /**
+     * Quantidade padrão de partições dos tópicos criados por esta aplicação.
+     * Motivo: Cada partição é consumida por uma única thread do grupo, então o número de partições limita quantas
+     * threads (spring.kafka.listener.concurrency) e instâncias conseguem consumir em paralelo.
+     * Uso Futuro: Cada tópico pode sobrescrever o padrão com spring.kafka.partitions.<topico>. Aumentar as partições de um
+     * tópico existente muda a partição das chaves, então é melhor fazer isso com os tópicos vazios.
+     */
+    @Value("${spring.kafka.partitions.default:1}")
+    private Integer defaultPartitionCount;
+
+    /**
+     * Formato usado para publicar os eventos: application/json ou application/vnd.saga.event.v1+binary.
+     * Motivo: A leitura segue o header content-type de cada mensagem, então os serviços podem trocar de formato um de cada vez.
+     */
+    @Value("${saga.wire.content-type:application/json}")
+    private String wireContentType;
+
+    /**
+     * Quantidade de buffers de escrita mantidos para reuso pelo SagaSerializer.
+     * Motivo: Cada evento publicado é codificado em um buffer emprestado do pool, em vez de alocar um novo por mensagem.
+     */
+    @Value("${saga.wire.buffer-pool-size:64}")
+    private Integer bufferPoolSize;
+
+    /**
+     * Quantidade máxima de envios aguardando confirmação do broker antes de bloquear quem publica.
+     * Motivo: Aplica backpressure quando o broker fica lento, em vez de acumular registros em memória sem limite.
+     */
+    @Value("${spring.kafka.producer.max-in-flight:1000}")
+    private Integer maxInFlight;
+
+    /** Valor fixo de replicas para criação de tópicos **/
     private static final Integer REPLICA_COUNT = 1;
 
+    /** Usado para ler a quantidade de partições configurada para cada tópico **/
+    private final Environment environment;
+
+    // ------------------- FORMATO DAS MENSAGENS ------------------- //
+
+    /**
+     * Codificação do Event no corpo das mensagens (saga-contracts), usada pelo serializer e pelo deserializer.
+     * Motivo: O evento é escrito direto em um buffer reaproveitado, em JSON ou binário, sem passar por uma String.
+     * A leitura escolhe o formato pelo header content-type de cada registro; mensagens sem o header são JSON.
+     */
+    @Bean
+    public SagaEventFormat<Event> sagaEventFormat(ObjectMapper objectMapper) {
+        return new SagaEventFormat<>(objectMapper, Event.class, new SagaEventCodec<>(EventWireMapper.INSTANCE),
+                new SagaBufferPool(bufferPoolSize), wireContentType);
+    }
+
     // ------------------- CONFIGURAÇÕES DO CONSUMER ------------------- //
 
     /**
      * Cria a "fábrica" de consumidores. O Spring Kafka usará esta fábrica para criar instâncias de consumidores
      * que escutarão as mensagens nos tópicos.
      * Motivo: Abstrai a criação manual de consumidores, delegando essa responsabilidade ao framework.
+     * O ErrorHandlingDeserializer transforma um corpo que não pode ser lido em erro do próprio registro,
+     * tratado pelo DeadLetterConfig, em vez de falhar o poll e travar a partição.
      */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
-        return new DefaultKafkaConsumerFactory<>(consumerProps());
+    public ConsumerFactory<String, Event> consumerFactory(SagaEventFormat<Event> sagaEventFormat) {
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), null,
+                new ErrorHandlingDeserializer<>(new SagaDeserializer<>(sagaEventFormat)));
     }
 
     /**
@@ -90,7 +150,6 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer); // Endereço do servidor.
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId); // Define a qual "time" de consumidores esta instância pertence.
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class); // (Desserializador da Chave) Kafka armazena tudo em bytes. Isso ensina o consumidor a "traduzir" a chave da mensagem de bytes de volta para uma String Java.
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class); // (Desserializador do Valor) O mesmo que o anterior, mas para o corpo da mensagem.
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset); // Define a estratégia de leitura inicial do tópico.
         return props;
     }
@@ -102,8 +161,8 @@ public class KafkaConfig {
      * Motivo: Padroniza a criação de produtores na aplicação.
      */
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerProps());
+    public ProducerFactory<String, Event> producerFactory(SagaEventFormat<Event> sagaEventFormat) {
+        return new DefaultKafkaProducerFactory<>(producerProps(), null, new SagaSerializer<>(sagaEventFormat));
     }
 
     /**
@@ -114,7 +173,7 @@ public class KafkaConfig {
         var props = new HashMap<String, Object>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer); // Endereço do servidor.
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // (Serializador da Chave) Ensina o produtor a "traduzir" a chave (String Java) para o formato de bytes que o Kafka entende.
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // (Serializador do Valor) O mesmo, mas para o corpo da mensagem.
+        props.putAll(SagaSender.ORDERED_DELIVERY); // Idempotência, acks=all e até 5 requisições por conexão: o produtor reenvia sem duplicar nem inverter a ordem por partição.
         return props;
     }
 
@@ -124,17 +183,32 @@ public class KafkaConfig {
      * Em vez de lidar com a complexidade do Producer nativo, você simplesmente chama `kafkaTemplate.send(...)`.
      */
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+    public KafkaTemplate<String, Event> kafkaTemplate(ProducerFactory<String, Event> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    /**
+     * Envio assíncrono usado pelos produtores da aplicação (saga-contracts).
+     * Motivo: Limita os envios sem confirmação a spring.kafka.producer.max-in-flight, bloqueando quem publica
+     * quando o broker fica lento, e devolve um future com o resultado final de cada envio.
+     */
+    @Bean
+    public SagaSender<Event> sagaSender(KafkaTemplate<String, Event> kafkaTemplate) {
+        return new SagaSender<>(kafkaTemplate, maxInFlight);
+    }
+
     private NewTopic buildTopic(String name){
         return TopicBuilder
                 .name(name)
-                .partitions(PARTITION_COUNT)
+                .partitions(partitionsOf(name))
                 .replicas(REPLICA_COUNT)
                 .build();
     }
+
+    /** Partições do tópico: spring.kafka.partitions.<topico> ou o padrão spring.kafka.partitions.default **/
+    private Integer partitionsOf(String name){
+        return environment.getProperty("spring.kafka.partitions.".concat(name), Integer.class, defaultPartitionCount);
+    }
     /** Configuração para iniciar o topico start-saga automaticamente durante a inicialização da aplicação **/
     @Bean
     public NewTopic orchestratorTopic(){
@@ -1,8 +1,8 @@
 package br.com.microservices.orchestrated.paymentservice.core.consumer;
 
 
+import br.com.microservices.orchestrated.paymentservice.core.dto.Event;
 import br.com.microservices.orchestrated.paymentservice.core.service.PaymentService;
-import br.com.microservices.orchestrated.paymentservice.core.utils.JsonUtil;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,16 +21,15 @@ public class PaymentConsumer {
     @Value("${spring.kafka.topic.payment-fail}")
     private String productValidationFail;
 
-    private final JsonUtil jsonUtil;
     private final PaymentService paymentService;
     @KafkaListener(
         groupId = "payment-group",
         topics = "payment-success"
     )
-    public void consumePaymentSuccessEvent(String payload){
-        log.info("Receiving payment success event {} from {} topic", payload, topicValidationSuccess);
-        paymentService.realizePayment(jsonUtil.toEvent(payload));
-        var event = jsonUtil.toEvent(payload);
+    public void consumePaymentSuccessEvent(Event event){
+        log.info("Receiving payment success event {} from {} topic", event, topicValidationSuccess);
+        event.discardReceivedHistory();
+        paymentService.realizePayment(event);
         log.info("Event product validation success {}", event);
     }
 
@@ -38,10 +37,10 @@ public class PaymentConsumer {
             groupId = "payment-group",
             topics = "payment-fail"
     )
-    public void consumePaymentFailEvent(String payload){
-        log.info("Receiving rollback event {} from {} topic", payload, productValidationFail);
-        paymentService.realizeRefund(jsonUtil.toEvent(payload));
-        var event = jsonUtil.toEvent(payload);
+    public void consumePaymentFailEvent(Event event){
+        log.info("Receiving rollback event {} from {} topic", event, productValidationFail);
+        event.discardReceivedHistory();
+        paymentService.realizeRefund(event);
         log.info("Event payment fail {}", event);
     }
 }
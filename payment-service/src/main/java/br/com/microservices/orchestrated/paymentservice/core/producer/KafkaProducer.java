@@ -1,9 +1,11 @@
 package br.com.microservices.orchestrated.paymentservice.core.producer;
 
+import br.com.microservices.orchestrated.paymentservice.core.dto.Event;
+import br.com.microservices.orchestrated.sagacontracts.SagaHeaders;
+import br.com.microservices.orchestrated.sagacontracts.SagaSender;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 
@@ -12,21 +14,37 @@ import org.springframework.stereotype.Component;
 @Component
 @RequiredArgsConstructor//Utilizado para instanciar apenas o que for necessario de instanciação
 public class KafkaProducer {
-    /** Isso funciona por conta do KafkaConfig realizado**/
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    /** Envio com janela limitada, aguardando a confirmação de cada evento **/
+    private final SagaSender<Event> sender;
 
 
     /** Topico produtor **/
     @Value("${spring.kafka.topic.orchestrator}")
     private String orchestratorTopic;
 
-    /** Método para envio de evento **/
-    public void sendEvent(String payload){
-        try{
-            log.info("Sending event to topic {} with data {}", orchestratorTopic, payload);
-            kafkaTemplate.send(orchestratorTopic, payload);
-        } catch (Exception e) {
-            log.error("Error trying to send data to topic {} with data {}", orchestratorTopic, payload, e);
-        }
+    /**
+     * Tentativas de envio ao orquestrador e espera antes do primeiro reenvio (dobrada a cada tentativa).
+     * Motivo: Se o envio não for confirmado, o listener falha e o registro consumido é retentado ou vai para o DLT,
+     * em vez de ter o offset confirmado com o evento da saga perdido.
+     */
+    @Value("${spring.kafka.producer.send-attempts:3}")
+    private Integer sendAttempts;
+
+    @Value("${spring.kafka.producer.retry-backoff-ms:200}")
+    private Long retryBackoffMs;
+
+    /**
+     * Método para envio de evento, com o transactionId como chave (mantém os eventos da mesma saga
+     * na mesma partição), os dados de roteamento nos headers e o corpo no formato configurado.
+     * Bloqueia até a confirmação do broker, então o listener só termina com o evento entregue.
+     * @param event evento a ser enviado
+     * @throws org.springframework.kafka.KafkaException se o envio não for confirmado após as tentativas
+     */
+    public void sendEvent(Event event){
+        event.releaseClaimedProducts();
+        log.info("Sending event to topic {} with data {}", orchestratorTopic, event);
+        var headers = SagaHeaders.of(event.getId(), event.getTransactionId(), event.getOrderId(),
+                event.getSagaType(), event.getSource(), event.getStatus());
+        sender.sendAndAwait(orchestratorTopic, event.getTransactionId(), event, headers, sendAttempts, retryBackoffMs);
     }
 }
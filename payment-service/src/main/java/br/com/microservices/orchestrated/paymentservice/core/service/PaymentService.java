@@ -9,7 +9,7 @@ import br.com.microservices.orchestrated.paymentservice.core.enums.ESagaStatus;
 import br.com.microservices.orchestrated.paymentservice.core.model.Payment;
 import br.com.microservices.orchestrated.paymentservice.core.producer.KafkaProducer;
 import br.com.microservices.orchestrated.paymentservice.core.repository.PaymentRepository;
-import br.com.microservices.orchestrated.paymentservice.core.utils.JsonUtil;
+import br.com.microservices.orchestrated.sagacontracts.SagaClaimCheckClient;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,8 +24,8 @@ public class PaymentService {
     private static final String CURRENT_SOURCE = "PAYMENT_SERVICE";
     private static final Double REDUCE_SUM_VALUE = 0.0;
     private static final Double MIN_AMOUNT_VALUE = 0.1;
-    private final JsonUtil jsonUtil;
     private final KafkaProducer producer;
+    private final SagaClaimCheckClient<OrderProducts> claimCheckClient;
     private final PaymentRepository paymentRepository;
 
     /**
@@ -34,6 +34,8 @@ public class PaymentService {
      */
     public void realizePayment(Event event){
         try{
+            /** Busca os produtos no order-service quando o pedido veio por claim-check **/
+            event.resolveClaimedProducts(claimCheckClient);
             /** realizePayment util 1 - Verifica se ja existe alguma transação **/
             checkCurrentValidation(event);
             /** realizePayment util 2 - Cria um pagamento pendente **/
@@ -51,7 +53,7 @@ public class PaymentService {
                handleFailCurrentNotExecuted(event, e.getMessage());
         }
         /** Envia evento para producer orchestrate **/
-        producer.sendEvent(jsonUtil.toJson(event));
+        producer.sendEvent(event);
     }
 
     /**
@@ -222,7 +224,7 @@ public class PaymentService {
            addHistory(event, "Rollback not executed for payment: ".concat(e.getMessage()));
        }
 
-        producer.sendEvent(jsonUtil.toJson(event));
+        producer.sendEvent(event);
     }
 
     /**
@@ -0,0 +1,40 @@
+package br.com.microservices.orchestrated.productvalidationservice.config.client;
+
+import br.com.microservices.orchestrated.productvalidationservice.core.dto.OrderProducts;
+import br.com.microservices.orchestrated.sagacontracts.SagaClaimCheckClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuração do cliente que busca no order-service os itens dos pedidos enviados por claim-check (saga-contracts).
+ */
+@Configuration
+public class ClaimCheckConfig {
+
+    /** Endereço do order-service, que devolve os itens do pedido **/
+    @Value("${saga.claim-check.order-service-url}")
+    private String orderServiceUrl;
+
+    /** Tempo máximo de conexão e de leitura da busca; estourado, o passo falha e a saga segue para o rollback **/
+    @Value("${saga.claim-check.timeout-ms:2000}")
+    private long timeoutMs;
+
+    /** Listas de itens mantidas em memória, indexadas pelo hash do conteúdo **/
+    @Value("${saga.claim-check.cache-size:256}")
+    private int cacheSize;
+
+    @Bean
+    public SagaClaimCheckClient<OrderProducts> claimCheckClient(RestTemplateBuilder restTemplateBuilder, ObjectMapper objectMapper) {
+        var restTemplate = restTemplateBuilder
+                .rootUri(orderServiceUrl)
+                .setConnectTimeout(Duration.ofMillis(timeoutMs))
+                .setReadTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        return new SagaClaimCheckClient<>(restTemplate, objectMapper, OrderProducts.class, cacheSize);
+    }
+}
@@ -1,7 +1,7 @@
 package br.com.microservices.orchestrated.productvalidationservice.core.consumer;
 
+import br.com.microservices.orchestrated.productvalidationservice.core.dto.Event;
 import br.com.microservices.orchestrated.productvalidationservice.core.service.ProductValidationService;
-import br.com.microservices.orchestrated.productvalidationservice.core.utils.JsonUtil;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,15 +23,13 @@ public class ProductValidationConsumer {
     @Value("${spring.kafka.topic.product-validation-fail}")
     private String productValidationFail;
 
-    private final JsonUtil jsonUtil;
-
     @KafkaListener(
         groupId = "product-validation-group",
         topics = "product-validation-success"
     )
-    public void consumeProductValidationSuccessEvent(String payload){
-        log.info("Receiving product validation success event {} from {} topic", payload, topicValidationSuccess);
-        var event = jsonUtil.toEvent(payload);
+    public void consumeProductValidationSuccessEvent(Event event){
+        log.info("Receiving product validation success event {} from {} topic", event, topicValidationSuccess);
+        event.discardReceivedHistory();
         service.validateExistingProducts(event);
         log.info("Event product validation success {}", event);
     }
@@ -40,9 +38,9 @@ public class ProductValidationConsumer {
             groupId = "product-validation-group",
             topics = "product-validation-fail"
     )
-    public void consumeProductValidationFailEvent(String payload){
-        log.info("Receiving rollback event {} from {} topic", payload, productValidationFail);
-        var event = jsonUtil.toEvent(payload);
+    public void consumeProductValidationFailEvent(Event event){
+        log.info("Receiving rollback event {} from {} topic", event, productValidationFail);
+        event.discardReceivedHistory();
         service.rollbackEvent(event);
         log.info("Event product validation fail {}", event);
     }
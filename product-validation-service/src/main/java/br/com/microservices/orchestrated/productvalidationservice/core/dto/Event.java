@@ -2,6 +2,7 @@ package br.com.microservices.orchestrated.productvalidationservice.core.dto;
 
 
 import br.com.microservices.orchestrated.productvalidationservice.core.enums.ESagaStatus;
+import br.com.microservices.orchestrated.sagacontracts.SagaClaimCheckClient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,17 +22,47 @@ import static org.springframework.util.CollectionUtils.isEmpty;
 public class Event {
     private String id;
     private String transactionId;
+    private String sagaType;
     private String orderId;
     private Order payload;
     private String source; //Definir qual serviço atual esta sendo utilizado
     private ESagaStatus status;
     private List<History> eventHistory;
     private LocalDateTime createdAt;
+    private int historySequence; //Última sequência usada no histórico, para numerar as entradas sem receber as anteriores
+    private String payloadHash; //Hash dos itens quando o pedido segue por claim-check, sem a lista de produtos no payload
 
     public void addToHistory(History history){
         if(isEmpty(eventHistory)){
             eventHistory = new ArrayList<>();
         }
+        history.setSequence(++historySequence);
         eventHistory.add(history);
     }
+
+    /**
+     * Descarta o histórico recebido, que já chegou ao order-service pelos serviços anteriores.
+     * A resposta deste serviço leva apenas as entradas que ele adicionar.
+     */
+    public void discardReceivedHistory() {
+        eventHistory = null;
+    }
+
+    /**
+     * Busca os produtos no order-service quando o evento chegou por claim-check, sem a lista no payload
+     */
+    public void resolveClaimedProducts(SagaClaimCheckClient<OrderProducts> claimCheckClient) {
+        if (payloadHash != null && payload != null && payload.getProducts() == null) {
+            payload.setProducts(claimCheckClient.products(payload.getId(), payloadHash));
+        }
+    }
+
+    /**
+     * Remove os produtos buscados por claim-check antes da resposta, que segue apenas com o hash
+     */
+    public void releaseClaimedProducts() {
+        if (payloadHash != null && payload != null) {
+            payload.setProducts(null);
+        }
+    }
 }
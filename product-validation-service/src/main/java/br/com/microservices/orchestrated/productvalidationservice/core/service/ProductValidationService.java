@@ -10,7 +10,7 @@ import br.com.microservices.orchestrated.productvalidationservice.core.model.Val
 import br.com.microservices.orchestrated.productvalidationservice.core.producer.KafkaProducer;
 import br.com.microservices.orchestrated.productvalidationservice.core.repository.ProductRepository;
 import br.com.microservices.orchestrated.productvalidationservice.core.repository.ValidationRepository;
-import br.com.microservices.orchestrated.productvalidationservice.core.utils.JsonUtil;
+import br.com.microservices.orchestrated.sagacontracts.SagaClaimCheckClient;
 import lombok.AllArgsConstructor;
 
 import lombok.extern.slf4j.Slf4j;
@@ -29,8 +29,8 @@ public class ProductValidationService {
     private static final String CURRENT_SOURCE = "PRODUCT_VALIDATION_SERVICE";
 
     /** Instanciando variaveis **/
-    private final JsonUtil jsonUtil;
     private final KafkaProducer producer;
+    private final SagaClaimCheckClient<OrderProducts> claimCheckClient;
     private final ProductRepository productRepository;
     private final ValidationRepository validationRepository;
 
@@ -40,6 +40,8 @@ public class ProductValidationService {
      */
     public void validateExistingProducts(Event event){
         try{
+            /** Busca os produtos no order-service quando o pedido veio por claim-check **/
+            event.resolveClaimedProducts(claimCheckClient);
             checkCurrentValidation(event);
             createValidation(event, true);
             handleSuccess(event);
@@ -47,7 +49,7 @@ public class ProductValidationService {
             log.error("Error trying to validate products: ", e);
             handleFailCurrentNotExecuted(event, e.getMessage());
         }
-        producer.sendEvent(jsonUtil.toJson(event));
+        producer.sendEvent(event);
     }
 
     /**
@@ -178,7 +180,7 @@ public class ProductValidationService {
         event.setStatus(ESagaStatus.FAIL);
         event.setSource(CURRENT_SOURCE);
         addHistory(event, "Rollback executed on product validation!");
-        producer.sendEvent(jsonUtil.toJson(event));
+        producer.sendEvent(event);
     }
 
     /**
@@ -0,0 +1,47 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool limitado de SagaWriter, para que cada serialização não aloque e descarte um buffer novo.
+ * Quando o pool está vazio um buffer novo é criado, e buffers que cresceram além de
+ * maxRetainedCapacity são descartados na devolução para não prender memória de eventos muito grandes.
+ */
+public final class SagaBufferPool {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final int DEFAULT_MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private final ArrayBlockingQueue<SagaWriter> buffers;
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+    public SagaBufferPool(int size, int initialCapacity, int maxRetainedCapacity) {
+        this.buffers = new ArrayBlockingQueue<>(size);
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /** Pool com um buffer por thread de produção ou consumo esperada **/
+    public SagaBufferPool(int size) {
+        this(size, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY);
+    }
+
+    public SagaWriter acquire() {
+        var buffer = buffers.poll();
+        return buffer == null ? new SagaWriter(initialCapacity) : buffer;
+    }
+
+    public void release(SagaWriter buffer) {
+        if (buffer.capacity() > maxRetainedCapacity) {
+            return;
+        }
+        buffer.reset();
+        buffers.offer(buffer);
+    }
+
+    /** Quantidade de buffers livres no pool **/
+    public int available() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Contrato do claim-check dos itens do pedido: pedidos grandes seguem pela saga sem a lista de
+ * produtos, apenas com o hash do conteúdo, e cada participante busca os itens no order-service.
+ * O hash é calculado sobre os bytes exatos que o order-service devolve, então o participante
+ * confere o que recebeu antes de desserializar.
+ */
+public final class SagaClaimCheck {
+
+    /** Caminho no order-service que devolve os itens do pedido em JSON **/
+    public static final String PRODUCTS_PATH = "/api/order/{orderId}/products";
+
+    private SagaClaimCheck() {
+    }
+
+    /** SHA-256 do conteúdo em hexadecimal **/
+    public static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
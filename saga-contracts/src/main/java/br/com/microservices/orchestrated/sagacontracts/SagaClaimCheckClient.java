@@ -0,0 +1,74 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busca no order-service os itens dos pedidos enviados por claim-check (SagaClaimCheck).
+ * O cache é indexado pelo hash do conteúdo, então uma entrada nunca fica desatualizada:
+ * pedidos diferentes com os mesmos itens compartilham a entrada, e a retentativa de um passo não refaz a busca.
+ * @param <T> classe do item do pedido no serviço
+ */
+public class SagaClaimCheckClient<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaClaimCheckClient.class);
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final JavaType productsType;
+    private final Map<String, List<T>> cache;
+
+    /**
+     * @param restTemplate template com a raiz no order-service e os timeouts configurados
+     * @param itemType classe do item do pedido, lida do JSON devolvido pelo order-service
+     * @param cacheSize quantidade de listas de itens mantidas em memória
+     */
+    public SagaClaimCheckClient(RestTemplate restTemplate, ObjectMapper objectMapper, Class<T> itemType, int cacheSize) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.productsType = objectMapper.getTypeFactory().constructCollectionType(List.class, itemType);
+        /** LRU por ordem de acesso: descarta o pedido usado há mais tempo ao passar de cacheSize **/
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<T>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Itens do pedido enviado por claim-check, conferidos contra o hash recebido no evento
+     * @throws IllegalStateException se o conteúdo devolvido não confere com o hash ou não pode ser lido
+     */
+    public List<T> products(String orderId, String hash) {
+        var products = cache.get(hash);
+        if (products == null) {
+            products = fetch(orderId, hash);
+            cache.put(hash, products);
+        }
+        return products;
+    }
+
+    private List<T> fetch(String orderId, String hash) {
+        var content = restTemplate.getForObject(SagaClaimCheck.PRODUCTS_PATH, byte[].class, orderId);
+        if (content == null || !hash.equals(SagaClaimCheck.hash(content))) {
+            throw new IllegalStateException("Products of order ".concat(orderId).concat(" do not match the claim-check hash."));
+        }
+        try {
+            List<T> products = List.copyOf(objectMapper.<List<T>>readValue(content, productsType));
+            log.info("Fetched {} products of order {} by claim-check", products.size(), orderId);
+            return products;
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading products of order ".concat(orderId), e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+/**
+ * Mapeamento do evento de cada serviço para o formato binário da saga.
+ * Cada serviço tem sua própria classe de evento (enums ou textos, documento Mongo ou DTO),
+ * mas todos precisam escrever e ler os campos na mesma ordem.
+ * @param <T> classe do evento no serviço
+ */
+public interface SagaCodec<T> {
+
+    void write(T event, SagaWriter out);
+
+    T read(SagaReader in);
+}
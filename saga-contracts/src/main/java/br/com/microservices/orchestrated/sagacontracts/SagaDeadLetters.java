@@ -0,0 +1,115 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Tratamento dos registros que não podem ser processados (poison records), igual em todos os serviços:
+ * o registro vai para o tópico <original>.DLT e o offset avança, então uma mensagem ruim não trava a partição
+ * nem a vazão da saga. O DeadLetterConfig de cada serviço só informa os tópicos e os templates.
+ */
+public final class SagaDeadLetters {
+
+    /** Métrica com a quantidade de registros enviados ao DLT, por tópico de origem e motivo **/
+    public static final String DEAD_LETTER_METRIC = "saga.dead.letter";
+
+    private static final Logger log = LoggerFactory.getLogger(SagaDeadLetters.class);
+
+    private SagaDeadLetters() {
+    }
+
+    /**
+     * Template para publicar no DLT os corpos que não puderam ser lidos, exatamente como chegaram
+     * @param bootstrapServers endereço do broker
+     */
+    public static KafkaTemplate<String, byte[]> rawTemplate(String bootstrapServers) {
+        var props = new LinkedHashMap<String, Object>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    /**
+     * Recoverer para os serviços que desserializam o Event no consumer: corpos ilegíveis (byte[]) saem pelo
+     * rawTemplate, e eventos lidos que falharam no processamento saem pelo template do próprio Event
+     */
+    public static <T> ConsumerRecordRecoverer recoverer(KafkaTemplate<String, byte[]> rawTemplate,
+                                                        KafkaTemplate<String, T> eventTemplate,
+                                                        Class<T> eventType,
+                                                        MeterRegistry meterRegistry) {
+        var templates = new LinkedHashMap<Class<?>, KafkaOperations<?, ?>>();
+        templates.put(byte[].class, rawTemplate);
+        templates.put(eventType, eventTemplate);
+        return counted(new DeadLetterPublishingRecoverer(templates, SagaDeadLetters::destination), meterRegistry);
+    }
+
+    /** Recoverer para quem consome o corpo em byte[] e o publica no DLT exatamente como chegou **/
+    public static ConsumerRecordRecoverer recoverer(KafkaTemplate<String, byte[]> template, MeterRegistry meterRegistry) {
+        return counted(new DeadLetterPublishingRecoverer(template, SagaDeadLetters::destination), meterRegistry);
+    }
+
+    /**
+     * Error handler dos listeners: corpos ilegíveis vão direto para o DLT; os demais erros são retentados
+     * e depois enviados ao DLT
+     * @param retryBackoffMs intervalo entre as retentativas
+     * @param retries retentativas em memória, que seguram a partição enquanto duram
+     */
+    public static DefaultErrorHandler errorHandler(ConsumerRecordRecoverer recoverer, long retryBackoffMs, long retries) {
+        return errorHandler(recoverer, new FixedBackOff(retryBackoffMs, retries));
+    }
+
+    /**
+     * Error handler com a política de retentativa informada; a política precisa ter fim (tentativas ou tempo máximo),
+     * senão um registro que sempre falha trava a partição
+     */
+    public static DefaultErrorHandler errorHandler(ConsumerRecordRecoverer recoverer, BackOff backOff) {
+        var errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(SerializationException.class);
+        return errorHandler;
+    }
+
+    /** Tópico de dead letter do tópico consumido **/
+    public static NewTopic topic(String sourceTopic) {
+        return TopicBuilder.name(SagaWire.deadLetterTopic(sourceTopic)).partitions(1).replicas(1).build();
+    }
+
+    /**
+     * Publica o registro e conta na métrica saga.dead.letter.
+     * O motivo vai nos headers kafka_dlt-exception-* e a origem (tópico, partição, offset, grupo) em kafka_dlt-original-*.
+     */
+    private static ConsumerRecordRecoverer counted(DeadLetterPublishingRecoverer publisher, MeterRegistry meterRegistry) {
+        return (record, exception) -> {
+            var reason = NestedExceptionUtils.getMostSpecificCause(exception).getClass().getSimpleName();
+            log.error("Sending record from topic {} at offset {} with key {} to dead letter: {}",
+                    record.topic(), record.offset(), record.key(), reason);
+            meterRegistry.counter(DEAD_LETTER_METRIC, "topic", record.topic(), "reason", reason).increment();
+            publisher.accept(record, exception);
+        };
+    }
+
+    /** A partição fica a cargo do produtor, então o DLT não precisa ter as mesmas partições do tópico original **/
+    private static TopicPartition destination(ConsumerRecord<?, ?> record, Exception exception) {
+        return new TopicPartition(SagaWire.deadLetterTopic(record.topic()), -1);
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Deserializer Kafka do evento da saga. O formato é escolhido pelo header content-type de cada
+ * registro, então serviços publicando em formatos diferentes convivem no mesmo tópico.
+ * @param <T> classe do evento no serviço
+ */
+public class SagaDeserializer<T> implements Deserializer<T> {
+
+    private final SagaEventFormat<T> format;
+
+    public SagaDeserializer(SagaEventFormat<T> format) {
+        this.format = format;
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return format.decode(data, SagaWire.JSON_CONTENT_TYPE);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        return format.decode(data, SagaWire.contentType(headers));
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binário do evento da saga, usado por todos os serviços.
+ * Os campos são escritos sempre na mesma ordem, sem nomes; campos novos entram no fim, e a leitura
+ * consulta a versão da mensagem (SagaEventFormat.BINARY_VERSION) antes de lê-los.
+ * - v2: sequence de cada History e historySequence do evento
+ * - v3: payloadHash (claim-check)
+ * @param <T> classe do evento no serviço, convertida pelo SagaEventMapper
+ */
+public final class SagaEventCodec<T> implements SagaCodec<T> {
+
+    private final SagaEventMapper<T> mapper;
+
+    public SagaEventCodec(SagaEventMapper<T> mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void write(T event, SagaWriter out) {
+        var data = mapper.toWire(event);
+        out.writeString(data.id());
+        out.writeString(data.transactionId());
+        out.writeString(data.sagaType());
+        out.writeString(data.orderId());
+        out.writeString(data.source());
+        out.writeString(data.status());
+        out.writeDateTime(data.createdAt());
+        writeOrder(out, data.payload());
+        var history = data.eventHistory();
+        out.writeSize(history);
+        if (history != null) {
+            for (var entry : history) {
+                out.writeString(entry.source());
+                out.writeString(entry.status());
+                out.writeString(entry.message());
+                out.writeDateTime(entry.createdAt());
+                out.writeVarLong(entry.sequence());
+            }
+        }
+        out.writeVarLong(data.historySequence());
+        out.writeString(data.payloadHash());
+    }
+
+    @Override
+    public T read(SagaReader in) {
+        var id = in.readString();
+        var transactionId = in.readString();
+        var sagaType = in.readString();
+        var orderId = in.readString();
+        var source = in.readString();
+        var status = in.readString();
+        var createdAt = in.readDateTime();
+        var payload = readOrder(in);
+        List<SagaEventData.History> history = null;
+        var historySize = in.readSize();
+        if (historySize >= 0) {
+            history = new ArrayList<>(historySize);
+            for (int i = 0; i < historySize; i++) {
+                history.add(new SagaEventData.History(in.readString(), in.readString(), in.readString(),
+                        in.readDateTime(), in.version() >= 2 ? (int) in.readVarLong() : 0));
+            }
+        }
+        var historySequence = in.version() >= 2 ? (int) in.readVarLong() : 0;
+        var payloadHash = in.version() >= 3 ? in.readString() : null;
+        return mapper.fromWire(new SagaEventData(id, transactionId, sagaType, orderId, source, status, createdAt,
+                payload, history, historySequence, payloadHash));
+    }
+
+    private static void writeOrder(SagaWriter out, SagaEventData.Order order) {
+        if (order == null) {
+            out.writeByte((byte) 0);
+            return;
+        }
+        out.writeByte((byte) 1);
+        out.writeString(order.id());
+        out.writeString(order.transactionId());
+        out.writeDateTime(order.createdAt());
+        out.writeDouble(order.totalAmount());
+        out.writeVarLong(order.totalItems());
+        var products = order.products();
+        out.writeSize(products);
+        if (products != null) {
+            for (var item : products) {
+                var product = item.product();
+                out.writeByte((byte) (product == null ? 0 : 1));
+                if (product != null) {
+                    out.writeString(product.code());
+                    out.writeDouble(product.unitValue());
+                }
+                out.writeVarLong(item.quantity());
+            }
+        }
+    }
+
+    private static SagaEventData.Order readOrder(SagaReader in) {
+        if (in.readByte() == 0) {
+            return null;
+        }
+        var id = in.readString();
+        var transactionId = in.readString();
+        var createdAt = in.readDateTime();
+        var totalAmount = in.readDouble();
+        var totalItems = (int) in.readVarLong();
+        List<SagaEventData.Item> products = null;
+        var size = in.readSize();
+        if (size >= 0) {
+            products = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                var product = in.readByte() == 1 ? new SagaEventData.Product(in.readString(), in.readDouble()) : null;
+                products.add(new SagaEventData.Item(product, (int) in.readVarLong()));
+            }
+        }
+        return new SagaEventData.Order(id, transactionId, createdAt, totalAmount, totalItems, products);
+    }
+}
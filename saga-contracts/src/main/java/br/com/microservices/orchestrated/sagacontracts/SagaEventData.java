@@ -0,0 +1,44 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evento da saga como ele trafega no formato binário, independente das classes de cada serviço:
+ * origem e status são textos, e cada serviço converte para os seus enums no SagaEventMapper.
+ * A ordem dos campos no corpo fica apenas no SagaEventCodec.
+ */
+public record SagaEventData(String id,
+                            String transactionId,
+                            String sagaType,
+                            String orderId,
+                            String source,
+                            String status,
+                            LocalDateTime createdAt,
+                            Order payload,
+                            List<History> eventHistory,
+                            int historySequence,
+                            String payloadHash) {
+
+    public record Order(String id,
+                        String transactionId,
+                        LocalDateTime createdAt,
+                        double totalAmount,
+                        int totalItems,
+                        List<Item> products) {
+    }
+
+    /** Item do pedido; product é nulo quando o item chegou sem produto **/
+    public record Item(Product product, int quantity) {
+    }
+
+    public record Product(String code, double unitValue) {
+    }
+
+    public record History(String source,
+                          String status,
+                          String message,
+                          LocalDateTime createdAt,
+                          int sequence) {
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+
+import static br.com.microservices.orchestrated.sagacontracts.SagaWire.BINARY_CONTENT_TYPE;
+
+/**
+ * Codifica e decodifica o evento de um serviço em JSON ou no formato binário da saga.
+ * A escrita usa um SagaWriter emprestado do pool e o JSON é gerado direto nele pelo Jackson,
+ * então nenhum dos formatos passa por uma String intermediária. O byte[] devolvido é uma cópia do que foi
+ * escrito, já que o buffer volta para o pool.
+ * Na leitura o formato vem do header content-type de cada mensagem, e mensagens sem header são JSON.
+ * @param <T> classe do evento no serviço
+ */
+public final class SagaEventFormat<T> {
+
+    /**
+     * Primeiro byte do formato binário, para que mudanças futuras convivam com mensagens antigas.
+     * 1: layout original; 2: sequência das entradas do histórico e última sequência da saga;
+     * 3: hash do claim-check do payload.
+     */
+    public static final byte BINARY_VERSION = 3;
+    private static final byte MIN_BINARY_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final SagaCodec<T> codec;
+    private final SagaBufferPool bufferPool;
+    private final String contentType;
+
+    /**
+     * @param objectMapper mapper do serviço, com os módulos de data registrados
+     * @param type classe do evento
+     * @param codec mapeamento binário do evento
+     * @param bufferPool pool de buffers de escrita
+     * @param contentType formato usado para publicar
+     */
+    public SagaEventFormat(ObjectMapper objectMapper, Class<T> type, SagaCodec<T> codec,
+                           SagaBufferPool bufferPool, String contentType) {
+        if (!SagaWire.isSupported(contentType)) {
+            throw new IllegalArgumentException("Unsupported saga wire content type " + contentType);
+        }
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.codec = codec;
+        this.bufferPool = bufferPool;
+        this.contentType = contentType;
+    }
+
+    /** Formato usado para publicar os eventos deste serviço **/
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] encode(T event) {
+        return encode(event, contentType);
+    }
+
+    public byte[] encode(T event, String contentType) {
+        var buffer = bufferPool.acquire();
+        try {
+            if (BINARY_CONTENT_TYPE.equals(contentType)) {
+                buffer.writeByte(BINARY_VERSION);
+                codec.write(event, buffer);
+            } else {
+                objectMapper.writeValue(buffer, event);
+            }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Error encoding saga event as " + contentType, e);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * @param data corpo recebido
+     * @param contentType formato informado no header, ou null para JSON
+     * @return evento, ou null quando o corpo é nulo
+     */
+    public T decode(byte[] data, String contentType) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            if (BINARY_CONTENT_TYPE.equals(contentType)) {
+                var version = data[0];
+                if (version < MIN_BINARY_VERSION || version > BINARY_VERSION) {
+                    throw new SerializationException("Unsupported saga event binary version " + version);
+                }
+                return codec.read(new SagaReader(data, 1, version));
+            }
+            return objectMapper.readValue(data, type);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error decoding saga event as " + contentType, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+/**
+ * Conversão entre o evento de cada serviço e o SagaEventData usado pelo SagaEventCodec.
+ * É a única parte do formato binário que cada serviço implementa, já que as classes do evento
+ * (enums ou textos, documento Mongo ou DTO) são de cada um.
+ * @param <T> classe do evento no serviço
+ */
+public interface SagaEventMapper<T> {
+
+    SagaEventData toWire(T event);
+
+    T fromWire(SagaEventData data);
+}
@@ -0,0 +1,66 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import org.apache.kafka.common.header.Headers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static br.com.microservices.orchestrated.sagacontracts.SagaWire.*;
+
+/**
+ * Headers Kafka com os dados de roteamento da saga, gravados por todos os serviços.
+ * O orquestrador decide o próximo passo apenas por eles, sem desserializar o corpo do evento.
+ * O content-type é gravado à parte: pelo SagaSerializer, ou pelo orquestrador quando repassa o corpo recebido.
+ */
+public final class SagaHeaders {
+
+    private SagaHeaders() {
+    }
+
+    /**
+     * Monta os headers de roteamento, ignorando os campos nulos; origem e status são gravados pelo nome
+     * @return nome e valor de cada header, em um mapa que aceita headers adicionais
+     */
+    public static Map<String, String> of(String eventId, String transactionId, String orderId, String sagaType,
+                                         Object source, Object status) {
+        var headers = new LinkedHashMap<String, String>();
+        put(headers, EVENT_ID, eventId);
+        put(headers, TRANSACTION_ID, transactionId);
+        put(headers, ORDER_ID, orderId);
+        put(headers, SAGA_TYPE, sagaType);
+        put(headers, SOURCE, source);
+        put(headers, STATUS, status);
+        return headers;
+    }
+
+    /**
+     * Lê os dados de roteamento dos headers de um registro recebido
+     * @param factory cria o roteamento do serviço; pode lançar IllegalArgumentException para origem ou status inválidos
+     * @return dados de roteamento, ou null se transactionId, source ou status estiverem ausentes ou inválidos
+     */
+    public static <R> R read(Headers headers, RoutingFactory<R> factory) {
+        var transactionId = header(headers, TRANSACTION_ID);
+        var source = header(headers, SOURCE);
+        var status = header(headers, STATUS);
+        if (transactionId == null || source == null || status == null) {
+            return null;
+        }
+        try {
+            return factory.create(header(headers, EVENT_ID), transactionId, header(headers, ORDER_ID),
+                    header(headers, SAGA_TYPE), source, status);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void put(Map<String, String> headers, String name, Object value) {
+        if (value != null) {
+            headers.put(name, value.toString());
+        }
+    }
+
+    @FunctionalInterface
+    public interface RoutingFactory<R> {
+        R create(String eventId, String transactionId, String orderId, String sagaType, String source, String status);
+    }
+}
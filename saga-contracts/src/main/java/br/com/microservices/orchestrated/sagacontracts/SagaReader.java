@@ -0,0 +1,80 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Leitura das primitivas do formato binário direto sobre o byte[] recebido do Kafka, sem copiá-lo para outro buffer;
+ * apenas os textos lidos são alocados.
+ * Espelha o SagaWriter.
+ */
+public final class SagaReader {
+
+    private final byte[] buffer;
+    private final int version;
+    private int position;
+
+    SagaReader(byte[] buffer, int position, int version) {
+        this.buffer = buffer;
+        this.position = position;
+        this.version = version;
+    }
+
+    /** Versão do formato da mensagem, para que o codec saiba quais campos foram escritos **/
+    public int version() {
+        return version;
+    }
+
+    public byte readByte() {
+        return buffer[position++];
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readVarLong() {
+        long zigzag = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer[position++];
+            zigzag |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        var length = (int) readVarLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        var value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /** @return tamanho da lista ou -1 para nulo **/
+    public int readSize() {
+        return (int) readVarLong() - 1;
+    }
+
+    public LocalDateTime readDateTime() {
+        if (readByte() == 0) {
+            return null;
+        }
+        var seconds = readVarLong();
+        var nanos = (int) readVarLong();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
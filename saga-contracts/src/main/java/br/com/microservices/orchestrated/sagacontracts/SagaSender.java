@@ -0,0 +1,182 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envio assíncrono dos eventos da saga sobre o KafkaTemplate, usado por todos os serviços.
+ * - Janela de envios em andamento limitada por um semáforo: o chamador só bloqueia quando a janela está cheia,
+ *   o que aplica backpressure quando o broker fica lento em vez de acumular memória sem limite.
+ * - Os reenvios ficam com o próprio produtor (ORDERED_DELIVERY): com idempotência e no máximo 5 requisições
+ *   em andamento por conexão, o broker mantém a ordem por partição mesmo com reenvios, então os eventos de uma
+ *   mesma saga (mesma chave) nunca chegam fora de ordem. Um reenvio feito aqui, depois de registros mais novos
+ *   da mesma chave, quebraria essa ordem.
+ * - O future devolvido por send completa quando o broker confirma o registro, ou com o erro final do produtor
+ *   (delivery.timeout.ms esgotado ou erro não recuperável).
+ * - sendAndAwait bloqueia até a confirmação e reenvia com backoff depois do erro final: como o chamador espera,
+ *   nenhum registro mais novo da mesma chave sai antes do reenvio, e a ordem da saga se mantém.
+ */
+public class SagaSender<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaSender.class);
+
+    /**
+     * Propriedades do produtor que garantem entrega sem duplicatas e na ordem por partição, com os reenvios
+     * feitos pelo próprio produtor até delivery.timeout.ms
+     */
+    public static final Map<String, Object> ORDERED_DELIVERY = Map.of(
+            ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+            ProducerConfig.ACKS_CONFIG, "all",
+            ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5
+    );
+
+    private final KafkaTemplate<String, V> kafkaTemplate;
+    private final int maxInFlight;
+    private final Semaphore window;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param kafkaTemplate template configurado com ORDERED_DELIVERY
+     * @param maxInFlight máximo de envios aguardando confirmação antes de bloquear o chamador
+     */
+    public SagaSender(KafkaTemplate<String, V> kafkaTemplate, int maxInFlight) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.maxInFlight = maxInFlight;
+        this.window = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Envia o registro sem aguardar a confirmação do broker, bloqueando apenas se a janela estiver cheia
+     * @param topic tópico de destino
+     * @param key chave do registro
+     * @param payload valor do registro, codificado pelo serializador do template
+     * @param headers headers do registro (SagaHeaders)
+     * @return completa quando o broker confirma o registro, ou com o erro final do produtor
+     */
+    public CompletableFuture<Void> send(String topic, String key, V payload, Map<String, String> headers) {
+        var record = new ProducerRecord<String, V>(topic, null, key, payload);
+        headers.forEach((name, value) -> record.headers().add(name, value.getBytes(StandardCharsets.UTF_8)));
+        var result = new CompletableFuture<Void>();
+        try {
+            window.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+            log.error("Interrupted waiting for send window to topic {} with key {}", topic, key);
+            result.completeExceptionally(e);
+            return result;
+        }
+        var start = System.nanoTime();
+        try {
+            kafkaTemplate.send(record).whenComplete((sendResult, error) -> {
+                if (error == null) {
+                    onSuccess(start, result);
+                } else {
+                    onFailure(record, error, result);
+                }
+            });
+        } catch (Exception e) {
+            onFailure(record, e, result);
+        }
+        return result;
+    }
+
+    /**
+     * Envia e aguarda a confirmação do broker, reenviando com backoff exponencial depois do erro final do produtor
+     * @param attempts tentativas de envio, incluindo a primeira
+     * @param backoffMs espera antes do primeiro reenvio, dobrada a cada nova tentativa
+     * @throws KafkaException quando as tentativas se esgotam, para que o offset do registro consumido não seja
+     * confirmado e o error handler do container retente ou envie o registro ao DLT
+     */
+    public void sendAndAwait(String topic, String key, V payload, Map<String, String> headers, int attempts, long backoffMs) {
+        var delay = backoffMs;
+        for (int attempt = 1; ; attempt++) {
+            Throwable error;
+            try {
+                send(topic, key, payload, headers).get();
+                return;
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KafkaException("Interrupted waiting for send to topic " + topic + " with key " + key, e);
+            }
+            if (attempt >= attempts) {
+                throw new KafkaException("Failed to send to topic " + topic + " with key " + key
+                        + " after " + attempts + " attempts", error);
+            }
+            log.warn("Retrying send to topic {} with key {} in {} ms (attempt {} of {})", topic, key, delay, attempt + 1, attempts);
+            pause(topic, key, delay);
+            delay *= 2;
+        }
+    }
+
+    /** Quantidade de envios aguardando confirmação do broker **/
+    public int inFlight() {
+        return maxInFlight - window.availablePermits();
+    }
+
+    /**
+     * Resumo dos envios desde a subida da aplicação
+     * @return texto com enviados, falhas, envios em andamento e latências média e máxima
+     */
+    public String stats() {
+        var count = sent.sum();
+        var avgMillis = count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.sum() / count);
+        return String.format("sent=%d failed=%d inFlight=%d avgLatencyMs=%d maxLatencyMs=%d",
+                count, failed.sum(), inFlight(), avgMillis, TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+    }
+
+    /** Envia imediatamente os registros acumulados no produtor **/
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    /** Envia o que estiver pendente; chamado pelo Spring no encerramento do bean (método close inferido) **/
+    public void close() {
+        kafkaTemplate.flush();
+        log.info("Kafka producer stats on shutdown: {}", stats());
+    }
+
+    private static void pause(String topic, String key, long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted before retrying send to topic " + topic + " with key " + key, e);
+        }
+    }
+
+    private void onSuccess(long start, CompletableFuture<Void> result) {
+        var latency = System.nanoTime() - start;
+        sent.increment();
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulate(latency);
+        window.release();
+        result.complete(null);
+    }
+
+    private void onFailure(ProducerRecord<String, V> record, Throwable error, CompletableFuture<Void> result) {
+        failed.increment();
+        window.release();
+        log.error("Error trying to send data to topic {} with key {} | {}", record.topic(), record.key(), stats(), error);
+        result.completeExceptionally(error);
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serializer Kafka do evento da saga. Codifica no formato configurado no SagaEventFormat
+ * e grava o header content-type no próprio registro, então o produtor não precisa informá-lo.
+ * @param <T> classe do evento no serviço
+ */
+public class SagaSerializer<T> implements Serializer<T> {
+
+    private final SagaEventFormat<T> format;
+
+    public SagaSerializer(SagaEventFormat<T> format) {
+        this.format = format;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return data == null ? null : format.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        SagaWire.putHeader(headers, SagaWire.CONTENT_TYPE, format.getContentType());
+        return format.encode(data);
+    }
+}
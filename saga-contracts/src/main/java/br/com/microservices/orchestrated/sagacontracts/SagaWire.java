@@ -0,0 +1,58 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Contrato das mensagens da saga trocadas entre os serviços: nomes dos headers Kafka
+ * e formatos aceitos no corpo. Todos os serviços usam estas constantes, então um header
+ * renomeado aqui vale para produtores e consumidores ao mesmo tempo.
+ */
+public final class SagaWire {
+
+    public static final String EVENT_ID = "saga-event-id";
+    public static final String TRANSACTION_ID = "saga-transaction-id";
+    public static final String ORDER_ID = "saga-order-id";
+    public static final String SAGA_TYPE = "saga-type";
+    public static final String SOURCE = "saga-source";
+    public static final String STATUS = "saga-status";
+    /** Formato do corpo da mensagem **/
+    public static final String CONTENT_TYPE = "content-type";
+
+    public static final String JSON_CONTENT_TYPE = "application/json";
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.saga.event.v1+binary";
+
+    /** Sufixo dos tópicos que recebem os registros que nenhum serviço conseguiu processar **/
+    public static final String DEAD_LETTER_SUFFIX = ".DLT";
+
+    private SagaWire() {
+    }
+
+    /** @return true se o formato pode ser usado para publicar eventos **/
+    public static boolean isSupported(String contentType) {
+        return JSON_CONTENT_TYPE.equals(contentType) || BINARY_CONTENT_TYPE.equals(contentType);
+    }
+
+    /** Tópico de dead letter do tópico informado **/
+    public static String deadLetterTopic(String topic) {
+        return topic.concat(DEAD_LETTER_SUFFIX);
+    }
+
+    /** Formato do corpo de um registro recebido, ou null quando o produtor não informou **/
+    public static String contentType(Headers headers) {
+        return header(headers, CONTENT_TYPE);
+    }
+
+    /** Valor do último header com o nome informado, ou null se não existir **/
+    public static String header(Headers headers, String name) {
+        var header = headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /** Substitui o header, mantendo um único valor por nome **/
+    public static void putHeader(Headers headers, String name, String value) {
+        headers.remove(name);
+        headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffer de escrita reutilizável, emprestado pelo SagaBufferPool.
+ * É um OutputStream para que o Jackson escreva o JSON direto nele, e também expõe as
+ * primitivas do formato binário: textos em UTF-8 prefixados pelo tamanho, inteiros em varint
+ * e valores monetários em 8 bytes. Nulos ocupam um único byte.
+ * Não é thread-safe: cada buffer é usado por uma única serialização por vez.
+ */
+public final class SagaWriter extends OutputStream {
+
+    private byte[] buffer;
+    private int position;
+
+    SagaWriter(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    @Override
+    public void write(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    public void writeByte(byte value) {
+        ensure(1);
+        buffer[position++] = value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte((byte) (value ? 1 : 0));
+    }
+
+    public void writeVarLong(long value) {
+        ensure(10);
+        var zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+    }
+
+    public void writeDouble(double value) {
+        ensure(8);
+        var bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    /**
+     * Tamanho + 1, para que 0 represente nulo, seguido do texto em UTF-8.
+     * Os caracteres são codificados direto no buffer, sem o byte[] intermediário do String.getBytes.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        var length = utf8Length(value);
+        writeVarLong(length + 1L);
+        ensure(length);
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate sem par: mesmo substituto usado pelo String.getBytes(UTF_8)
+                buffer[position++] = (byte) '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /** Tamanho + 1, para que 0 represente lista nula **/
+    public void writeSize(List<?> list) {
+        writeVarLong(list == null ? 0 : list.size() + 1L);
+    }
+
+    /** Segundos e nanos desde a epoch, precedidos de um byte de presença **/
+    public void writeDateTime(LocalDateTime value) {
+        if (value == null) {
+            writeByte((byte) 0);
+            return;
+        }
+        writeByte((byte) 1);
+        writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+        writeVarLong(value.getNano());
+    }
+
+    /** Cópia exata dos bytes escritos, que é o que o Kafka recebe **/
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public int size() {
+        return position;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    void reset() {
+        position = 0;
+    }
+
+    private void ensure(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+
+    private static int utf8Length(String value) {
+        var length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,145 @@
+package br.com.microservices.orchestrated.sagacontracts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static br.com.microservices.orchestrated.sagacontracts.SagaWire.BINARY_CONTENT_TYPE;
+import static br.com.microservices.orchestrated.sagacontracts.SagaWire.JSON_CONTENT_TYPE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SagaEventFormatTest {
+
+    private static final SagaEventMapper<SagaEventData> IDENTITY = new SagaEventMapper<>() {
+        @Override
+        public SagaEventData toWire(SagaEventData event) {
+            return event;
+        }
+
+        @Override
+        public SagaEventData fromWire(SagaEventData data) {
+            return data;
+        }
+    };
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 10, 14, 30, 15, 123_456_789);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void binaryRoundTripKeepsHistoryClaimCheckHashAndNulls() {
+        var event = fullEvent("hash-of-products");
+
+        assertThat(roundTrip(event, BINARY_CONTENT_TYPE)).isEqualTo(event);
+    }
+
+    @Test
+    void jsonRoundTripKeepsHistoryClaimCheckHashAndNulls() {
+        var event = fullEvent("hash-of-products");
+
+        assertThat(roundTrip(event, JSON_CONTENT_TYPE)).isEqualTo(event);
+    }
+
+    @Test
+    void roundTripOfEventWithOnlyNullFields() {
+        var event = new SagaEventData(null, null, null, null, null, null, null, null, null, 0, null);
+
+        assertThat(roundTrip(event, BINARY_CONTENT_TYPE)).isEqualTo(event);
+        assertThat(roundTrip(event, JSON_CONTENT_TYPE)).isEqualTo(event);
+    }
+
+    @Test
+    void writesCurrentVersionAsFirstByte() {
+        var data = format(BINARY_CONTENT_TYPE).encode(fullEvent(null));
+
+        assertThat(data[0]).isEqualTo(SagaEventFormat.BINARY_VERSION);
+    }
+
+    @Test
+    void readsVersion2MessageWithoutClaimCheckHash() {
+        var event = fullEvent(null);
+        var current = format(BINARY_CONTENT_TYPE).encode(event);
+        // A versão 3 só acrescentou o payloadHash no fim; um hash nulo ocupa um único byte
+        var version2 = Arrays.copyOf(current, current.length - 1);
+        version2[0] = 2;
+
+        assertThat(format(BINARY_CONTENT_TYPE).decode(version2, BINARY_CONTENT_TYPE)).isEqualTo(event);
+    }
+
+    @Test
+    void rejectsUnknownBinaryVersion() {
+        var format = format(BINARY_CONTENT_TYPE);
+        var newer = format.encode(fullEvent(null));
+        newer[0] = SagaEventFormat.BINARY_VERSION + 1;
+        var older = format.encode(fullEvent(null));
+        older[0] = 0;
+
+        assertThatThrownBy(() -> format.decode(newer, BINARY_CONTENT_TYPE))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+        assertThatThrownBy(() -> format.decode(older, BINARY_CONTENT_TYPE))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void rejectsTruncatedBinaryMessage() {
+        var format = format(BINARY_CONTENT_TYPE);
+        var data = format.encode(fullEvent("hash-of-products"));
+        var truncated = Arrays.copyOf(data, data.length / 2);
+
+        assertThatThrownBy(() -> format.decode(truncated, BINARY_CONTENT_TYPE))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void serializerWritesContentTypeReadByDeserializer() {
+        var event = fullEvent("hash-of-products");
+        var headers = new RecordHeaders();
+
+        var data = new SagaSerializer<>(format(BINARY_CONTENT_TYPE)).serialize("topic", headers, event);
+        var decoded = new SagaDeserializer<>(format(JSON_CONTENT_TYPE)).deserialize("topic", headers, data);
+
+        assertThat(SagaWire.contentType(headers)).isEqualTo(BINARY_CONTENT_TYPE);
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    @Test
+    void messageWithoutContentTypeIsReadAsJson() {
+        var event = fullEvent(null);
+        var data = format(JSON_CONTENT_TYPE).encode(event);
+
+        var decoded = new SagaDeserializer<>(format(BINARY_CONTENT_TYPE)).deserialize("topic", new RecordHeaders(), data);
+
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    private SagaEventData roundTrip(SagaEventData event, String contentType) {
+        var format = format(contentType);
+        return format.decode(format.encode(event), contentType);
+    }
+
+    private SagaEventFormat<SagaEventData> format(String contentType) {
+        return new SagaEventFormat<>(objectMapper, SagaEventData.class, new SagaEventCodec<>(IDENTITY),
+                new SagaBufferPool(2), contentType);
+    }
+
+    /** Evento com histórico, item sem produto, textos com acentos e campos nulos **/
+    private static SagaEventData fullEvent(String payloadHash) {
+        var order = new SagaEventData.Order("order-1", "transaction-1", CREATED_AT, 150.5, 3, List.of(
+                new SagaEventData.Item(new SagaEventData.Product("COMIC_BOOKS", 50.25), 2),
+                new SagaEventData.Item(null, 1)));
+        var history = List.of(
+                new SagaEventData.History("ORCHESTRATOR", "SUCCESS", "Saga iniciada ✓", CREATED_AT, 1),
+                new SagaEventData.History("PAYMENT_SERVICE", "FAIL", null, CREATED_AT.plusSeconds(1), 2));
+        return new SagaEventData("event-1", "transaction-1", null, "order-1", "PAYMENT_SERVICE", "FAIL",
+                CREATED_AT, order, history, 2, payloadHash);
+    }
+}